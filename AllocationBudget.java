@@ -0,0 +1,77 @@
+import java.lang.management.ManagementFactory;
+
+// Allocation regression check for the steady-state simulation tick.
+// Runs a world headless until it has settled, then measures the bytes each update()
+// allocates on this thread and fails (exit code 1) if any tick goes over budget.
+// There's no test runner in this tree, so like KinematicsBench it's a plain main:
+//   java AllocationBudget [--budget=bytes] [--mean=bytes] [--ticks=N] [--world=WxH]
+// --budget caps the worst single tick; deaths, respawns and cannon fire legitimately
+// allocate, so it's loose. --mean caps the average and is what catches a hot path
+// that has started allocating every tick again.
+public class AllocationBudget {
+    private static final int WARMUP = 5_000; // long enough for the JIT and escape analysis to settle
+
+    public static void main(String[] args) {
+        long budget = 16 * 1024;
+        long meanBudget = 256;
+        int ticks = 20_000;
+        int width = GamePanel.WIDTH, height = GamePanel.HEIGHT;
+        for (String arg : args) {
+            if (arg.startsWith("--budget=")) budget = Long.parseLong(arg.substring(9));
+            else if (arg.startsWith("--mean=")) meanBudget = Long.parseLong(arg.substring(7));
+            else if (arg.startsWith("--ticks=")) ticks = Integer.parseInt(arg.substring(8));
+            else if (arg.startsWith("--world=")) {
+                String[] size = arg.substring(8).split("x");
+                width = Integer.parseInt(size[0]);
+                height = Integer.parseInt(size[1]);
+            }
+        }
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            System.out.println("Thread allocation accounting not supported by this JVM");
+            System.exit(2);
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+        long thread = Thread.currentThread().getId();
+
+        try (World world = new World(width, height)) {
+            for (int i = 0; i < WARMUP; i++) world.update();
+
+            // The bean call itself allocates a little; measure that and subtract it
+            long overhead = Long.MAX_VALUE;
+            for (int i = 0; i < 100; i++) {
+                long a = threads.getThreadAllocatedBytes(thread);
+                long b = threads.getThreadAllocatedBytes(thread);
+                overhead = Math.min(overhead, b - a);
+            }
+
+            long total = 0, worst = 0, worstTick = 0;
+            int over = 0;
+            for (int i = 0; i < ticks; i++) {
+                long before = threads.getThreadAllocatedBytes(thread);
+                world.update();
+                long bytes = Math.max(0, threads.getThreadAllocatedBytes(thread) - before - overhead);
+                total += bytes;
+                if (bytes > worst) {
+                    worst = bytes;
+                    worstTick = world.tick();
+                }
+                if (bytes > budget) over++;
+            }
+
+            long mean = total / ticks;
+            System.out.printf("%d ticks on %dx%d: mean %d B/tick (budget %d), worst %d B at tick %d (budget %d)%n",
+                    ticks, width, height, mean, meanBudget, worst, worstTick, budget);
+            if (over > 0 || mean > meanBudget) {
+                System.out.printf("FAIL: %d ticks over the per-tick budget, mean %s%n",
+                        over, mean > meanBudget ? "over budget" : "ok");
+                System.exit(1);
+            }
+            System.out.println("OK");
+        } catch (java.io.IOException e) {
+            throw new java.io.UncheckedIOException(e);
+        }
+    }
+}
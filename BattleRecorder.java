@@ -0,0 +1,181 @@
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Samples a BattleStats on its own thread once per window and appends the window's
+// deltas to a column store: a directory with one file of big-endian longs per column
+// (tick, wall_ms, then red_shots, blue_shots, ... in BattleStats column order) and a
+// columns.txt naming them. Each column is a flat primitive array, so a run of hours is
+// a few MB that numpy/pandas/anything can map directly, and adding a row is one
+// small append per file. The sim thread never waits on any of this.
+//
+// It also keeps the last minute of windows in memory for live readers (recent()).
+//
+// java BattleRecorder DIR prints a recorded run back as CSV.
+public class BattleRecorder implements AutoCloseable {
+    private static final int RECENT = 60; // windows kept for recent()
+
+    private final BattleStats stats;
+    private final long windowMillis;
+    private final FileChannel[] files;
+    private final ByteBuffer row;
+    private final long[] now, last;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    // Rolling window deltas, guarded by this; written only by the recorder thread
+    private final long[][] recent = new long[RECENT][];
+    private int recentHead, recentCount;
+
+    private BattleRecorder(BattleStats stats, Path dir, long windowMillis) throws IOException {
+        this.stats = stats;
+        this.windowMillis = windowMillis;
+        Files.createDirectories(dir);
+        List<String> names = columnNames();
+        Files.write(dir.resolve("columns.txt"), names);
+        files = new FileChannel[names.size()];
+        for (int c = 0; c < files.length; c++) {
+            files[c] = FileChannel.open(dir.resolve(names.get(c) + ".i64"), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+        row = ByteBuffer.allocate(Long.BYTES);
+        now = new long[BattleStats.columns()];
+        last = new long[BattleStats.columns()];
+        thread = new Thread(this::run, "battle-recorder");
+        thread.setDaemon(true);
+    }
+
+    // Starts recording; the final partial window is written on close() or at JVM exit
+    public static BattleRecorder start(BattleStats stats, Path dir, long windowMillis) throws IOException {
+        BattleRecorder recorder = new BattleRecorder(stats, dir, windowMillis);
+        recorder.thread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                recorder.close();
+            } catch (IOException e) {
+                System.err.println("battle recorder: " + e.getMessage());
+            }
+        }));
+        return recorder;
+    }
+
+    static List<String> columnNames() {
+        List<String> names = new ArrayList<>();
+        names.add("tick");
+        names.add("wall_ms");
+        for (BattleStats.Metric m : BattleStats.METRICS) {
+            for (Faction f : BattleStats.FACTIONS) {
+                names.add(f.name().toLowerCase(Locale.ROOT) + "_" + m.name().toLowerCase(Locale.ROOT));
+            }
+        }
+        return names;
+    }
+
+    private void run() {
+        long next = System.currentTimeMillis() + windowMillis;
+        while (running) {
+            long sleep = next - System.currentTimeMillis();
+            if (sleep > 0) {
+                try {
+                    Thread.sleep(sleep);
+                } catch (InterruptedException e) {
+                    break;
+                }
+                continue;
+            }
+            next += windowMillis;
+            try {
+                window();
+            } catch (IOException e) {
+                System.err.println("battle recorder: stopped: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private synchronized void window() throws IOException {
+        if (running) sample(); // close() may have taken the last one while we slept
+    }
+
+    // Closes one window: deltas since the last sample go to disk and into recent
+    private synchronized void sample() throws IOException {
+        stats.totals(now);
+        long[] delta = recent[recentHead];
+        if (delta == null) delta = recent[recentHead] = new long[now.length];
+        for (int i = 0; i < now.length; i++) {
+            delta[i] = now[i] - last[i];
+            last[i] = now[i];
+        }
+        recentHead = (recentHead + 1) % RECENT;
+        if (recentCount < RECENT) recentCount++;
+
+        append(0, stats.tick());
+        append(1, System.currentTimeMillis());
+        for (int i = 0; i < delta.length; i++) append(i + 2, delta[i]);
+    }
+
+    private void append(int column, long value) throws IOException {
+        row.clear();
+        row.putLong(value).flip();
+        while (row.hasRemaining()) files[column].write(row);
+    }
+
+    // Sum of a counter over the last minute of windows (or as many as we have)
+    public synchronized long recent(BattleStats.Metric metric, Faction faction) {
+        int column = BattleStats.column(metric, faction);
+        long sum = 0;
+        for (int i = 0; i < recentCount; i++) sum += recent[(recentHead - 1 - i + RECENT) % RECENT][column];
+        return sum;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!running) return;
+        running = false;
+        thread.interrupt();
+        sample();
+        for (FileChannel file : files) file.close();
+    }
+
+    // Dumps a recorded directory as CSV, one row per window
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("usage: java BattleRecorder DIR");
+            System.exit(2);
+        }
+        Path dir = Paths.get(args[0]);
+        List<String> names = Files.readAllLines(dir.resolve("columns.txt"));
+        List<DataInputStream> columns = new ArrayList<>();
+        for (String name : names) {
+            InputStream in = Files.newInputStream(dir.resolve(name + ".i64"));
+            columns.add(new DataInputStream(new BufferedInputStream(in)));
+        }
+        System.out.println(String.join(",", names));
+        StringBuilder line = new StringBuilder();
+        try {
+            while (true) {
+                line.setLength(0);
+                for (int c = 0; c < columns.size(); c++) {
+                    if (c > 0) line.append(',');
+                    line.append(columns.get(c).readLong());
+                }
+                System.out.println(line);
+            }
+        } catch (EOFException e) {
+            // a row is only complete once every column has it; a torn last row is dropped
+        } finally {
+            for (DataInputStream in : columns) in.close();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Running battle numbers per faction: shots, hits, kills and so on. The tick only ever
+// bumps a LongAdder, which is striped and lock-free, so counting costs next to nothing
+// and several worlds on different threads can share one. Nothing here is windowed or
+// written out; BattleRecorder samples the totals off the sim thread for that.
+public class BattleStats {
+    public enum Metric {
+        SHOTS,        // cannonballs fired
+        HITS,         // cannonballs that struck their target
+        KILLS,        // ships sunk by this faction's fire
+        LOSSES,       // this faction's ships sunk
+        RESPAWNS,     // replacement ships launched from the home port
+        DROPS,        // health drops collected
+        ATTACK_TICKS, // ship-ticks spent in attack mode
+        CLAIMS,       // islands taken
+        LOOT          // loot unloaded at friendly ports
+    }
+
+    static final Metric[] METRICS = Metric.values();
+    static final Faction[] FACTIONS = Faction.values();
+
+    private final LongAdder[] counters = new LongAdder[METRICS.length * FACTIONS.length];
+    private final AtomicLong tick = new AtomicLong(); // latest world tick, for the recorder's rows
+
+    public BattleStats() {
+        for (int i = 0; i < counters.length; i++) counters[i] = new LongAdder();
+    }
+
+    // Counters are laid out metric-major, which is also the recorder's column order
+    static int column(Metric metric, Faction faction) {
+        return metric.ordinal() * FACTIONS.length + faction.ordinal();
+    }
+
+    static int columns() {
+        return METRICS.length * FACTIONS.length;
+    }
+
+    public void add(Metric metric, Faction faction) {
+        counters[column(metric, faction)].increment();
+    }
+
+    public void add(Metric metric, Faction faction, long n) {
+        counters[column(metric, faction)].add(n);
+    }
+
+    public long total(Metric metric, Faction faction) {
+        return counters[column(metric, faction)].sum();
+    }
+
+    // All totals at once, in column order; the sums aren't one atomic snapshot, but
+    // each counter only grows, so consecutive samples never go backwards
+    void totals(long[] out) {
+        for (int i = 0; i < counters.length; i++) out[i] = counters[i].sum();
+    }
+
+    void setTick(long now) {
+        tick.lazySet(now); // only the recorder reads it, and a tick late is fine
+    }
+
+    public long tick() {
+        return tick.get();
+    }
+}
@@ -0,0 +1,149 @@
+import java.awt.*;
+import java.awt.event.*;
+
+// Pan/zoom view onto the world. Holds the world-space point at the top-left of the
+// viewport plus a zoom factor, and converts that into a Graphics2D transform and a
+// visible world rectangle for culling. Input arrives on the EDT while the render loop
+// reads the fields, so they are volatile; a torn read just means a frame is a pixel off.
+public class Camera {
+    private static final double MIN_ZOOM = 0.1, MAX_ZOOM = 4.0;
+    private static final int PAN_STEP = 48; // screen pixels per key press
+
+    private final int worldWidth, worldHeight;
+    private volatile double x, y, zoom = 1.0;
+    private volatile int viewWidth, viewHeight;
+    private volatile int version = 0; // bumped on every pan/zoom/resize
+
+    public Camera(int worldWidth, int worldHeight, int viewWidth, int viewHeight) {
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+        this.viewWidth = viewWidth;
+        this.viewHeight = viewHeight;
+    }
+
+    public void setViewport(int w, int h) {
+        viewWidth = w;
+        viewHeight = h;
+        clamp();
+    }
+
+    public double zoom() {
+        return zoom;
+    }
+
+    public double x() {
+        return x;
+    }
+
+    public double y() {
+        return y;
+    }
+
+    public int viewWidth() {
+        return viewWidth;
+    }
+
+    public int viewHeight() {
+        return viewHeight;
+    }
+
+    public int version() {
+        return version;
+    }
+
+    public void pan(double screenDx, double screenDy) {
+        x += screenDx / zoom;
+        y += screenDy / zoom;
+        clamp();
+    }
+
+    // Zooms while keeping the world point under the screen position fixed
+    public void zoomAt(double factor, int screenX, int screenY) {
+        double wx = x + screenX / zoom;
+        double wy = y + screenY / zoom;
+        zoom = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, zoom * factor));
+        x = wx - screenX / zoom;
+        y = wy - screenY / zoom;
+        clamp();
+    }
+
+    // Keep the view over the world; if the world is smaller than the view, centre it
+    private void clamp() {
+        double vw = viewWidth / zoom, vh = viewHeight / zoom;
+        x = vw >= worldWidth ? (worldWidth - vw) / 2 : Math.max(0, Math.min(worldWidth - vw, x));
+        y = vh >= worldHeight ? (worldHeight - vh) / 2 : Math.max(0, Math.min(worldHeight - vh, y));
+        version++;
+    }
+
+    public void apply(Graphics2D g2) {
+        double z = zoom;
+        g2.scale(z, z);
+        g2.translate(-x, -y);
+    }
+
+    // World-space rectangle currently on screen, clipped to the world
+    public Rectangle visible() {
+        double z = zoom;
+        int x0 = (int) Math.floor(x), y0 = (int) Math.floor(y);
+        int x1 = (int) Math.ceil(x + viewWidth / z), y1 = (int) Math.ceil(y + viewHeight / z);
+        x0 = Math.max(0, x0);
+        y0 = Math.max(0, y0);
+        x1 = Math.min(worldWidth, x1);
+        y1 = Math.min(worldHeight, y1);
+        return new Rectangle(x0, y0, Math.max(0, x1 - x0), Math.max(0, y1 - y0));
+    }
+
+    // World-space rectangle under a screen-space one, padded out to whole pixels
+    public Rectangle toWorld(Rectangle screen) {
+        double z = zoom;
+        int x0 = (int) Math.floor(x + screen.x / z), y0 = (int) Math.floor(y + screen.y / z);
+        int x1 = (int) Math.ceil(x + (screen.x + screen.width) / z);
+        int y1 = (int) Math.ceil(y + (screen.y + screen.height) / z);
+        return new Rectangle(x0, y0, x1 - x0, y1 - y0);
+    }
+
+    // Arrow keys / WASD pan, mouse wheel zooms at the cursor, dragging pans
+    public void attach(Component c) {
+        c.setFocusable(true);
+        c.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                switch (e.getKeyCode()) {
+                    case KeyEvent.VK_LEFT, KeyEvent.VK_A -> pan(-PAN_STEP, 0);
+                    case KeyEvent.VK_RIGHT, KeyEvent.VK_D -> pan(PAN_STEP, 0);
+                    case KeyEvent.VK_UP, KeyEvent.VK_W -> pan(0, -PAN_STEP);
+                    case KeyEvent.VK_DOWN, KeyEvent.VK_S -> pan(0, PAN_STEP);
+                    case KeyEvent.VK_EQUALS, KeyEvent.VK_PLUS -> zoomAt(1.25, viewWidth / 2, viewHeight / 2);
+                    case KeyEvent.VK_MINUS -> zoomAt(0.8, viewWidth / 2, viewHeight / 2);
+                    default -> { }
+                }
+            }
+        });
+        c.addMouseWheelListener(e -> zoomAt(Math.pow(1.1, -e.getPreciseWheelRotation()), e.getX(), e.getY()));
+        MouseAdapter drag = new MouseAdapter() {
+            private int lastX, lastY;
+
+            @Override
+            public void mousePressed(MouseEvent e) {
+                lastX = e.getX();
+                lastY = e.getY();
+                c.requestFocusInWindow();
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                pan(lastX - e.getX(), lastY - e.getY());
+                lastX = e.getX();
+                lastY = e.getY();
+            }
+        };
+        c.addMouseListener(drag);
+        c.addMouseMotionListener(drag);
+        c.addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                setViewport(c.getWidth(), c.getHeight());
+            }
+        });
+    }
+}
@@ -1,28 +1,32 @@
 import java.awt.*;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 
-public class Cannonball {
+// Runnable so the ball itself can be its removal timer (see World.update): run() only marks it done
+public class Cannonball implements Runnable {
     int x, y;
     int dx, dy;
     int rangeLeft;
     boolean hit = false;
     boolean exploded = false;
+    boolean done = false; // animation over; swept out of the world's list
     Ship target;
+    final Faction shooter; // for BattleStats
+    int netId; // see SnapshotServer
 
     private static final int MAX_RANGE = 150; // pixels
 
     // Explosion animation state
     private int explosionTick = 0;
     private static final int EXPLOSION_DURATION = 12;
-    private List<Debris> debrisList = new ArrayList<>();
+    static final float DEBRIS_GRAVITY = 0.2f; // gravity for the debris arc
     private int splashTick = 0;
     private static final int SPLASH_DURATION = 15;
 
-    public Cannonball(int x, int y, Ship target) {
+    public Cannonball(int x, int y, Ship target, Faction shooter) {
         this.x = x;
         this.y = y;
         this.target = target;
+        this.shooter = shooter;
         double angle = Math.atan2(target.y - y, target.x - x);
         double speed = 4;
         dx = (int) (Math.cos(angle) * speed);
@@ -30,10 +34,19 @@ public class Cannonball {
         rangeLeft = MAX_RANGE;
     }
 
-    public void move() {
+    // A ball already in flight, for shard handoff (see ShardWorker)
+    static Cannonball inFlight(int x, int y, int dx, int dy, int rangeLeft, Ship target, Faction shooter) {
+        Cannonball cb = new Cannonball(x, y, target, shooter);
+        cb.dx = dx;
+        cb.dy = dy;
+        cb.rangeLeft = rangeLeft;
+        return cb;
+    }
+
+    // Debris is handed off to the shared particle batch, which moves it separately; null skips it
+    public void move(ParticleBatch debris) {
         if (exploded) {
             explosionTick++;
-            for (Debris d : debrisList) d.move();
             return;
         }
         if (hit) {
@@ -49,10 +62,11 @@ public class Cannonball {
 
         // Check if hit target
         int distSq = (x - target.x) * (x - target.x) + (y - target.y) * (y - target.y);
-        if (distSq < target.size * target.size / 4) {
+        if (distSq < target.size() * target.size() / 4) {
             hit = true;
             target.health--;
-            startExplosion();
+            target.lastHitBy = shooter;
+            startExplosion(debris);
         }
 
         // Splash if out of range
@@ -63,78 +77,103 @@ public class Cannonball {
         }
     }
 
-    private void startExplosion() {
+    private void startExplosion(ParticleBatch debris) {
         exploded = true;
         explosionTick = 0;
-        debrisList.clear();
+        if (debris == null) return; // effects are off (time warp)
+        // Debris is cosmetic and never feeds back into the sim, so it doesn't need the world's
+        // seeded RNG; a thread-local one keeps parallel worlds from contending on Math.random
+        ThreadLocalRandom rand = ThreadLocalRandom.current();
         // Generate debris flying out in random directions, much slower
         for (int i = 0; i < 8; i++) {
-            double angle = Math.toRadians(i * 45 + (int)(Math.random() * 20 - 10));
-            double speed = 0.7 + Math.random() * 0.7; // much slower debris
-            debrisList.add(new Debris(x, y, Math.cos(angle) * speed, Math.sin(angle) * speed));
+            double angle = Math.toRadians(i * 45 + rand.nextInt(-10, 10));
+            double speed = 0.7 + rand.nextDouble() * 0.7; // much slower debris
+            int life = 10 + rand.nextInt(6);
+            debris.add(x, y, (float) (Math.cos(angle) * speed), (float) (Math.sin(angle) * speed), life);
         }
     }
 
+    @Override
+    public void run() {
+        done = true;
+    }
+
+    // Ticks left in the splash or explosion animation once the ball has landed
+    public int ticksUntilDone() {
+        if (exploded) return EXPLOSION_DURATION + 1 - explosionTick;
+        return SPLASH_DURATION - splashTick;
+    }
+
     public boolean hasHitTarget() {
         // Remove after explosion animation or splash
         return (hit && !exploded && splashTick >= SPLASH_DURATION) || (exploded && explosionTick > EXPLOSION_DURATION);
     }
 
+    // Animation frame numbering shared with the sprite cache in SoftwareRenderer:
+    // 0 = in flight, then one frame per explosion tick, then one per splash tick
+    static final int FRAME_EXPLOSION = 1;
+    static final int FRAME_SPLASH = FRAME_EXPLOSION + EXPLOSION_DURATION + 1;
+    static final int FRAME_COUNT = FRAME_SPLASH + SPLASH_DURATION;
+
+    // Current animation frame, or -1 once there is nothing left to draw
+    int frame() {
+        if (exploded) return explosionTick <= EXPLOSION_DURATION ? FRAME_EXPLOSION + explosionTick : -1;
+        if (hit) return rangeLeft <= 0 && splashTick < SPLASH_DURATION ? FRAME_SPLASH + splashTick : -1;
+        return 0;
+    }
+
     public void draw(Graphics g) {
-        if (exploded && explosionTick <= EXPLOSION_DURATION) {
+        int frame = frame();
+        if (frame >= 0) drawFrame(g, x, y, frame);
+    }
+
+    static void drawFrame(Graphics g, int x, int y, int frame) {
+        if (frame >= FRAME_EXPLOSION && frame < FRAME_SPLASH) {
+            int explosionTick = frame - FRAME_EXPLOSION;
             // Draw explosion (very small)
             int r = 2 + explosionTick / 2; // much smaller radius
             Graphics2D g2 = (Graphics2D) g;
-            g2.setColor(new Color(255, 200, 60, 180));
+            g2.setColor(FLASH_OUTER);
             g2.fillOval(x - r / 2, y - r / 2, r, r);
-            g2.setColor(new Color(255, 120, 0, 120));
+            g2.setColor(FLASH_INNER);
             g2.fillOval(x - r / 4, y - r / 4, r / 2, r / 2);
-
-            // Draw debris
-            for (Debris d : debrisList) d.draw(g2);
-        } else if (hit && rangeLeft <= 0 && splashTick < SPLASH_DURATION) {
+        } else if (frame >= FRAME_SPLASH) {
+            int splashTick = frame - FRAME_SPLASH;
             // Draw animated splash
             Graphics2D g2 = (Graphics2D) g;
             int splashRadius = 4 + splashTick * 2;
-            int alpha = 180 - splashTick * 10;
-            if (alpha < 0) alpha = 0;
-            g2.setColor(new Color(120, 180, 230, alpha));
+            g2.setColor(SPLASH_COLORS[splashTick]);
             g2.fillOval(x - splashRadius / 2, y - splashRadius / 4, splashRadius, splashRadius / 2);
-        } else if (!hit) {
+        } else {
             // Draw cannonball
-            g.setColor(new Color(60, 60, 60));
+            g.setColor(BALL);
             g.fillRect(x - 2, y - 2, 4, 4);
 
             // Optional: add a white highlight for a pixel-art shine
-            g.setColor(new Color(220, 220, 220));
+            g.setColor(SHINE);
             g.fillRect(x - 1, y - 1, 1, 1);
         }
     }
 
-    // Debris class for explosion effect
-    private static class Debris {
-        double x, y, dx, dy;
-        int life = 10 + (int)(Math.random() * 6);
-
-        Debris(double x, double y, double dx, double dy) {
-            this.x = x;
-            this.y = y;
-            this.dx = dx;
-            this.dy = dy;
-        }
+    // Palette, shared so drawing doesn't allocate
+    private static final Color FLASH_OUTER = new Color(255, 200, 60, 180);
+    private static final Color FLASH_INNER = new Color(255, 120, 0, 120);
+    private static final Color BALL = new Color(60, 60, 60);
+    private static final Color SHINE = new Color(220, 220, 220);
+    private static final Color[] SPLASH_COLORS = new Color[SPLASH_DURATION];
+    static {
+        for (int t = 0; t < SPLASH_DURATION; t++) SPLASH_COLORS[t] = new Color(120, 180, 230, Math.max(0, 180 - t * 10));
+    }
 
-        void move() {
-            x += dx;
-            y += dy;
-            dy += 0.2; // gravity for arc
-            life--;
-        }
+    static final Color[] DEBRIS_COLORS = new Color[8];
+    static {
+        for (int i = 0; i < DEBRIS_COLORS.length; i++) DEBRIS_COLORS[i] = new Color(120 + i * 10, 80, 30);
+    }
 
-        void draw(Graphics2D g2) {
-            if (life > 0) {
-                g2.setColor(new Color(120 + (int)(Math.random() * 80), 80, 30));
-                g2.fillRect((int)x, (int)y, 3, 3);
-            }
-        }
+    // One explosion debris particle, drawn straight from the particle batch
+    public static void drawDebris(Graphics g, ParticleBatch debris, int i, long tick) {
+        // Flicker between browns like the old random colour, without allocating
+        g.setColor(DEBRIS_COLORS[(int) ((i * 31 + tick) & 7)]);
+        g.fillRect((int) debris.x[i], (int) debris.y[i], 3, 3);
     }
 }
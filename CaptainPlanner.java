@@ -0,0 +1,210 @@
+import java.awt.Point;
+import java.util.List;
+
+// Faction-level "AI Captain": decides which ships defend a threatened island and
+// where the rest should go hunting.
+// The plan is a resumable state machine that runs time-sliced on the sim thread.
+// Each tick gets a hard microsecond budget; when it runs out we stop and carry on
+// next tick, so a slow plan only gets staler, it never stretches a frame. Every step
+// of the machine does at most BUDGET_CHECK islands or ships, so the clock is read
+// often enough however many of either there are.
+// A cycle works from a snapshot of the ship list taken when it starts: ships sunk
+// since are skipped, ships launched since wait for the next cycle, and nobody is
+// skipped or ordered twice because the live list shifted between slices.
+public class CaptainPlanner {
+
+    // Published to ships as a single reference write; Ship.update just reads the field
+    public static final class Order {
+        public enum Kind { ATTACK, DEFEND, RETURN }
+
+        public final Kind kind;
+        public final int x, y;
+        public final long issuedTick;
+
+        Order(Kind kind, int x, int y, long issuedTick) {
+            this.kind = kind;
+            this.x = x;
+            this.y = y;
+            this.issuedTick = issuedTick;
+        }
+    }
+
+    private enum Phase { THREAT, TARGET, ASSIGN }
+
+    private static final int SCOUT_RANGE = 600; // how far from home captains look for prey
+    private static final int BUDGET_CHECK = 16; // islands scanned or ships assigned between clock reads
+    private static final int FULL_HOLD = 40;    // cargo at which a ship heads home to unload (see Economy)
+
+    private final InfluenceMap influence;
+    private final Visibility fog; // captains only hunt what their fleet can see
+    private final Faction[] factions = Faction.values();
+    private long budgetNanos; // 0 = no clock: finish a full cycle every tick
+
+    // Resumable plan state
+    private Phase phase = Phase.THREAT;
+    private int factionIndex = 0;
+    private int islandCursor = 0;
+    private Island threatened, home; // found by the THREAT scan
+    private int worstPressure;
+    private int shipCursor = 0;
+    private Ship[] fleet = new Ship[64]; // this cycle's snapshot of the ship list
+    private int fleetCount = 0;
+    private int defendersLeft = 0;
+    private Order defendOrder, attackOrder, returnOrder;
+    private final Order[] lastDefend = new Order[factions.length], lastAttack = new Order[factions.length],
+            lastReturn = new Order[factions.length];
+    private int fleetSeen = 0;
+    private final int[] fleetSize = new int[factions.length]; // from the previous assign pass
+
+    private long tick = 0;
+    private long lastCompletedTick = 0;
+    private long cyclesCompleted = 0;
+    private long slicesOverBudget = 0;
+
+    public CaptainPlanner(InfluenceMap influence, Visibility fog, int budgetMicros) {
+        this.influence = influence;
+        this.fog = fog;
+        this.budgetNanos = budgetMicros * 1000L;
+    }
+
+    public void setBudget(int budgetMicros) {
+        this.budgetNanos = budgetMicros * 1000L;
+    }
+
+    // Run one time slice of planning; returns as soon as the budget is used up
+    public void step(List<Ship> ships, List<Island> islands) {
+        tick++;
+        long deadline = System.nanoTime() + budgetNanos;
+        while (true) {
+            switch (phase) {
+                case THREAT -> {
+                    if (scanIslands(ships, islands)) planDefence();
+                }
+                case TARGET -> planAttack();
+                case ASSIGN -> {
+                    if (assign()) nextFaction();
+                }
+            }
+            if (budgetNanos > 0 && System.nanoTime() >= deadline) {
+                slicesOverBudget++;
+                return;
+            }
+            // A full cycle per tick is plenty; anything more is wasted work
+            if (phase == Phase.THREAT && factionIndex == 0 && lastCompletedTick == tick) return;
+        }
+    }
+
+    // One slice of the island scan: the faction's most threatened island and its home
+    // port (its first island). True once every island has been looked at.
+    private boolean scanIslands(List<Ship> ships, List<Island> islands) {
+        if (islandCursor == 0) {
+            if (factionIndex == 0) snapshot(ships);
+            threatened = home = null;
+            worstPressure = 0;
+        }
+        Faction faction = factions[factionIndex];
+        int end = Math.min(islands.size(), islandCursor + BUDGET_CHECK);
+        for (; islandCursor < end; islandCursor++) {
+            Island island = islands.get(islandCursor);
+            if (island.faction != faction) continue;
+            if (home == null) home = island;
+            int pressure = influence.pressure(faction, island);
+            if (pressure > worstPressure) {
+                worstPressure = pressure;
+                threatened = island;
+            }
+        }
+        if (islandCursor < islands.size()) return false;
+        islandCursor = 0;
+        return true;
+    }
+
+    // toArray into a big enough array copies without allocating
+    private void snapshot(List<Ship> ships) {
+        if (fleet.length < ships.size()) fleet = new Ship[Math.max(ships.size(), fleet.length * 2)];
+        fleet = ships.toArray(fleet);
+        for (int i = ships.size(); i < fleetCount; i++) fleet[i] = null; // don't keep last cycle's dead alive
+        fleetCount = ships.size();
+    }
+
+    private void planDefence() {
+        Faction faction = factions[factionIndex];
+        if (threatened != null) {
+            Point port = threatened.getPortLocation();
+            defendOrder = lastDefend[factionIndex] = reissue(lastDefend[factionIndex], Order.Kind.DEFEND, port.x, port.y);
+            // Send roughly enough ships to match the enemy presence, capped at half the fleet
+            int need = influence.threat(faction, threatened.x, threatened.y) / 3 + 1;
+            defendersLeft = Math.min(need, fleetSize[factionIndex] / 2 + 1);
+        } else {
+            defendOrder = null;
+            defendersLeft = 0;
+        }
+        phase = Phase.TARGET;
+    }
+
+    // Bounded work: the prey search only covers the cells within SCOUT_RANGE of home
+    private void planAttack() {
+        Faction faction = factions[factionIndex];
+        int prey = home == null ? -1 : influence.weakestEnemyCell(faction, home.x, home.y, SCOUT_RANGE, fog);
+        attackOrder = prey < 0 ? null : (lastAttack[factionIndex] =
+                reissue(lastAttack[factionIndex], Order.Kind.ATTACK, influence.cellX(prey), influence.cellY(prey)));
+        Point port = home == null ? null : home.getPortLocation();
+        returnOrder = port == null ? null : (lastReturn[factionIndex] =
+                reissue(lastReturn[factionIndex], Order.Kind.RETURN, port.x, port.y));
+        shipCursor = 0;
+        fleetSeen = 0;
+        phase = Phase.ASSIGN;
+    }
+
+    // Hands out orders to this faction's ships; true once every ship has been visited
+    private boolean assign() {
+        Faction faction = factions[factionIndex];
+        int end = Math.min(fleetCount, shipCursor + BUDGET_CHECK);
+        for (; shipCursor < end; shipCursor++) {
+            Ship ship = fleet[shipCursor];
+            if (ship.faction != faction || ship.health <= 0) continue;
+            fleetSeen++;
+            if (ship.cargo >= FULL_HOLD && returnOrder != null) {
+                ship.order = returnOrder;
+            } else if (defendersLeft > 0 && defendOrder != null) {
+                ship.order = defendOrder;
+                defendersLeft--;
+            } else {
+                ship.order = attackOrder;
+            }
+        }
+        if (shipCursor < fleetCount) return false;
+        fleetSize[factionIndex] = fleetSeen;
+        return true;
+    }
+
+    // Plans mostly repeat from cycle to cycle; keep the published order (and its
+    // issuedTick) when nothing changed instead of allocating an identical one
+    private Order reissue(Order previous, Order.Kind kind, int x, int y) {
+        if (previous != null && previous.kind == kind && previous.x == x && previous.y == y) return previous;
+        return new Order(kind, x, y, tick);
+    }
+
+    private void nextFaction() {
+        phase = Phase.THREAT;
+        factionIndex++;
+        if (factionIndex == factions.length) {
+            factionIndex = 0;
+            cyclesCompleted++;
+            lastCompletedTick = tick;
+        }
+    }
+
+    // Ticks since the last complete plan was published; grows when planning overruns
+    public long planAge() {
+        return tick - lastCompletedTick;
+    }
+
+    public long cyclesCompleted() {
+        return cyclesCompleted;
+    }
+
+    public long slicesOverBudget() {
+        return slicesOverBudget;
+    }
+}
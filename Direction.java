@@ -14,9 +14,8 @@ public enum Direction {
     }
 
     private static final Direction[] VALUES = values();
-    private static final Random rand = new Random();
 
-    public static Direction random() {
+    public static Direction random(Random rand) {
         return VALUES[rand.nextInt(VALUES.length)];
     }
 }
@@ -0,0 +1,113 @@
+import java.awt.Rectangle;
+
+// Collects the screen rectangles that changed between two frames.
+// Entities report their world-space bounds; these are mapped through the camera,
+// clipped to the viewport and merged into a small set of rectangles as they arrive.
+// Past MAX_RECTS, or once most of the screen is dirty, it gives up and reports a
+// full repaint, which is cheaper at that point than many small ones.
+public class DirtyRegions {
+    private static final int MAX_RECTS = 48;
+    private static final int MERGE_SLACK = 16; // merge rects this close together, fewer blits beat tighter ones
+
+    private final int[] x0 = new int[MAX_RECTS], y0 = new int[MAX_RECTS];
+    private final int[] x1 = new int[MAX_RECTS], y1 = new int[MAX_RECTS];
+    private int count = 0;
+    private boolean full = false;
+
+    private double camX, camY, zoom = 1;
+    private int viewWidth, viewHeight;
+
+    public void begin(Camera camera, int viewWidth, int viewHeight) {
+        this.camX = camera.x();
+        this.camY = camera.y();
+        this.zoom = camera.zoom();
+        this.viewWidth = viewWidth;
+        this.viewHeight = viewHeight;
+        count = 0;
+        full = false;
+    }
+
+    public void markFull() {
+        full = true;
+    }
+
+    public boolean isFull() {
+        return full;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public void get(int i, Rectangle out) {
+        out.setBounds(x0[i], y0[i], x1[i] - x0[i], y1[i] - y0[i]);
+    }
+
+    // World-space rectangle the viewport covers, so callers can skip what's off screen
+    public void visibleWorld(Rectangle out) {
+        out.setBounds((int) Math.floor(camX), (int) Math.floor(camY),
+                (int) Math.ceil(viewWidth / zoom) + 1, (int) Math.ceil(viewHeight / zoom) + 1);
+    }
+
+    // World-space bounds of something that was or will be drawn
+    public void addWorld(int wx, int wy, int w, int h) {
+        int sx0 = (int) Math.floor((wx - camX) * zoom) - 1;
+        int sy0 = (int) Math.floor((wy - camY) * zoom) - 1;
+        int sx1 = (int) Math.ceil((wx + w - camX) * zoom) + 1;
+        int sy1 = (int) Math.ceil((wy + h - camY) * zoom) + 1;
+        addScreen(sx0, sy0, sx1, sy1);
+    }
+
+    // Copies another set in, e.g. last frame's bounds so vacated pixels get repainted
+    public void addAll(DirtyRegions other) {
+        if (other.full) full = true;
+        for (int i = 0; i < other.count && !full; i++) {
+            addScreen(other.x0[i], other.y0[i], other.x1[i], other.y1[i]);
+        }
+    }
+
+    private void addScreen(int ax0, int ay0, int ax1, int ay1) {
+        if (full) return;
+        ax0 = Math.max(0, ax0);
+        ay0 = Math.max(0, ay0);
+        ax1 = Math.min(viewWidth, ax1);
+        ay1 = Math.min(viewHeight, ay1);
+        if (ax0 >= ax1 || ay0 >= ay1) return; // off screen
+
+        // Grow into any rect it touches; growing can make it touch others, so repeat
+        boolean merged = true;
+        while (merged) {
+            merged = false;
+            for (int i = 0; i < count; i++) {
+                if (ax0 <= x1[i] + MERGE_SLACK && x0[i] <= ax1 + MERGE_SLACK
+                        && ay0 <= y1[i] + MERGE_SLACK && y0[i] <= ay1 + MERGE_SLACK) {
+                    ax0 = Math.min(ax0, x0[i]);
+                    ay0 = Math.min(ay0, y0[i]);
+                    ax1 = Math.max(ax1, x1[i]);
+                    ay1 = Math.max(ay1, y1[i]);
+                    remove(i);
+                    merged = true;
+                    break;
+                }
+            }
+        }
+        if (count == MAX_RECTS) {
+            full = true;
+            return;
+        }
+        x0[count] = ax0;
+        y0[count] = ay0;
+        x1[count] = ax1;
+        y1[count] = ay1;
+        count++;
+        if ((long) (ax1 - ax0) * (ay1 - ay0) * 2 > (long) viewWidth * viewHeight) full = true;
+    }
+
+    private void remove(int i) {
+        count--;
+        x0[i] = x0[count];
+        y0[i] = y0[count];
+        x1[i] = x1[count];
+        y1[i] = y1[count];
+    }
+}
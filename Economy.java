@@ -0,0 +1,221 @@
+import java.awt.Point;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Island ownership and the loot economy, run in batched economy ticks every TICK sim
+// ticks rather than per entity per frame. Each economy tick is one pass over the
+// islands plus one over ships carrying cargo:
+//   - claiming: an island whose waters an enemy faction holds (InfluenceMap strength
+//     well above the owner's) for HOLD economy ticks in a row changes hands
+//   - delivery: ships within DELIVER_RANGE of a friendly port unload their cargo into
+//     the faction's ledger; ships pick cargo up from drops left by sunk ships
+//   - income: every island pays its owner by level, summed per faction first
+//   - upgrades: each faction funds its least developed island from the ledger, up to
+//     FUNDING per island it owns per economy tick, and the island levels up once paid for
+// In a sharded ocean (see ShardWorker) each shard claims, pays income on and develops only
+// the islands in its own strip [ownX0, ownX1), and reports owner and level changes so the
+// other shards can mirror them; ledgers stay per shard.
+// Per-island state lives in arrays indexed like World.islands(), which never changes,
+// so hundreds of islands cost a few hundred array reads a second.
+public class Economy {
+    static final int TICK = 30;               // sim ticks between economy ticks
+    static final int MAX_LEVEL = 3;
+    static final int BOUNTY = 20;             // loot in every drop a sunk ship leaves
+    private static final int HOLD = 10;       // economy ticks an enemy must hold the waters
+    private static final int HOLD_STRENGTH = 6; // enemy influence that counts as holding (about two ships close in)
+    private static final int INCOME = 1;      // per island per economy tick, times (level + 1)
+    private static final int FUNDING = 5;     // most a faction puts into upgrades per economy tick, per island owned
+    private static final int DELIVER_RANGE = 48;
+
+    private final List<Island> islands;
+    private final InfluenceMap influence;
+    private final Visibility fog;
+    private final SpatialGrid<Island> islandGrid;
+    private final BattleStats stats;
+    private final int ownX0, ownX1; // only islands in this strip are claimed and developed here (see ShardWorker)
+    private final Faction[] factions = Faction.values();
+
+    private final long[] ledger = new long[factions.length];
+    private final int[] income = new int[factions.length];  // economy tick scratch
+    private final int[] owned = new int[factions.length];
+    private final int[] project = new int[factions.length]; // island each faction is developing, -1 = none
+    private final int[] progress;   // loot paid into each island's next level
+    private final int[] held;       // economy ticks the current challenger has held it
+    private final Faction[] challenger;
+    private final int[] changed;    // own islands whose owner or level changed in the last economy tick
+    private final boolean[] listed; // ...and whether an island is already in that list
+    private int changedCount;
+    private int version;            // bumped whenever an island's owner or level changes
+
+    // Delivery probe: the grid callback reads these instead of capturing, so it's allocated once
+    private Ship deliverer;
+    private final Consumer<Island> deliver = this::deliverAt;
+
+    Economy(List<Island> islands, InfluenceMap influence, Visibility fog, SpatialGrid<Island> islandGrid,
+            BattleStats stats, int ownX0, int ownX1) {
+        this.islands = islands;
+        this.influence = influence;
+        this.fog = fog;
+        this.islandGrid = islandGrid;
+        this.stats = stats;
+        this.ownX0 = ownX0;
+        this.ownX1 = ownX1;
+        progress = new int[islands.size()];
+        held = new int[islands.size()];
+        challenger = new Faction[islands.size()];
+        changed = new int[islands.size()];
+        listed = new boolean[islands.size()];
+    }
+
+    // Called every sim tick; only does work on economy ticks
+    void update(long tick, List<Ship> ships, PirateCrowd pirates) {
+        for (int i = 0; i < changedCount; i++) listed[changed[i]] = false;
+        changedCount = 0;
+        if (tick % TICK != 0) return;
+        claim(pirates);
+        for (int i = 0; i < ships.size(); i++) {
+            Ship ship = ships.get(i);
+            if (ship.cargo <= 0) continue;
+            deliverer = ship;
+            int r = DELIVER_RANGE + Island.MAX_RADIUS + 18; // ports sit radius + 18 below the centre
+            islandGrid.forEachIn(ship.x - r, ship.y - r, ship.x + r, ship.y + r, deliver);
+        }
+        deliverer = null;
+        develop();
+    }
+
+    private void claim(PirateCrowd pirates) {
+        for (int i = 0; i < islands.size(); i++) {
+            Island island = islands.get(i);
+            if (island.x < ownX0 || island.x >= ownX1) continue;
+            Faction owner = island.faction;
+            int defence = influence.strength(owner, island.x, island.y);
+            Faction strongest = null;
+            int attack = 0;
+            for (Faction f : factions) {
+                if (f == owner) continue;
+                int s = influence.strength(f, island.x, island.y);
+                if (s > attack) {
+                    attack = s;
+                    strongest = f;
+                }
+            }
+            if (attack < HOLD_STRENGTH || attack <= 2 * defence) {
+                if (held[i] > 0) held[i]--; // the owner is getting it back
+                continue;
+            }
+            if (strongest != challenger[i]) {
+                challenger[i] = strongest;
+                held[i] = 0;
+            }
+            if (++held[i] >= HOLD) {
+                setOwner(i, strongest, pirates);
+                stats.add(BattleStats.Metric.CLAIMS, strongest);
+                markChanged(i);
+            }
+        }
+    }
+
+    private void markChanged(int index) {
+        if (listed[index]) return;
+        listed[index] = true;
+        changed[changedCount++] = index;
+    }
+
+    // Also how claims made in another shard arrive (see sync)
+    void setOwner(int index, Faction owner, PirateCrowd pirates) {
+        Island island = islands.get(index);
+        if (island.faction == owner) return;
+        island.faction = owner;
+        island.level = Math.max(0, island.level - 1); // a captured island loses some of its development
+        progress[index] = 0;
+        held[index] = 0;
+        challenger[index] = null;
+        pirates.crewOf(island).recolor();
+        fog.claimed(index, island); // the lookouts change sides too
+        island.revision = ++version;
+    }
+
+    // Mirrors an island another shard owns the strip of: its owner, then its level as that shard has it
+    void sync(int index, Faction owner, int level, PirateCrowd pirates) {
+        setOwner(index, owner, pirates);
+        Island island = islands.get(index);
+        if (island.level == level) return;
+        island.level = level;
+        progress[index] = 0;
+        island.revision = ++version;
+    }
+
+    private void deliverAt(Island island) {
+        Ship ship = deliverer;
+        if (ship.cargo <= 0 || island.faction != ship.faction) return;
+        Point port = island.getPortLocation();
+        int dx = ship.x - port.x, dy = ship.y - port.y;
+        if (dx * dx + dy * dy > DELIVER_RANGE * DELIVER_RANGE) return;
+        ledger[ship.faction.ordinal()] += ship.cargo;
+        stats.add(BattleStats.Metric.LOOT, ship.faction, ship.cargo);
+        ship.cargo = 0;
+    }
+
+    // Income and upgrades, batched per faction: one pass over the islands sums each
+    // faction's income and finds its least developed island, then each faction pays once.
+    // Islands outside our strip are another shard's to pay and develop.
+    private void develop() {
+        Arrays.fill(income, 0);
+        Arrays.fill(owned, 0);
+        Arrays.fill(project, -1);
+        for (int i = 0; i < islands.size(); i++) {
+            Island island = islands.get(i);
+            if (island.x < ownX0 || island.x >= ownX1) continue;
+            int f = island.faction.ordinal();
+            income[f] += INCOME * (island.level + 1);
+            owned[f]++;
+            if (island.level < MAX_LEVEL && (project[f] < 0 || island.level < islands.get(project[f]).level)) project[f] = i;
+        }
+        for (int f = 0; f < factions.length; f++) {
+            ledger[f] += income[f];
+            int i = project[f];
+            if (i < 0) continue;
+            Island island = islands.get(i);
+            int pay = (int) Math.min(ledger[f], Math.min(FUNDING * owned[f], upgradeCost(island.level) - progress[i]));
+            ledger[f] -= pay;
+            progress[i] += pay;
+            if (progress[i] >= upgradeCost(island.level)) {
+                island.level++;
+                progress[i] = 0;
+                island.revision = ++version;
+                markChanged(i);
+            }
+        }
+    }
+
+    static int upgradeCost(int level) {
+        return 100 * (level + 1);
+    }
+
+    public long ledger(Faction faction) {
+        return ledger[faction.ordinal()];
+    }
+
+    public int islandsOwned(Faction faction) {
+        int n = 0;
+        for (int i = 0; i < islands.size(); i++) if (islands.get(i).faction == faction) n++;
+        return n;
+    }
+
+    // Changes whenever an island's owner or level does; renderers with cached island art
+    // compare it, then Island.revision to find which islands to redraw
+    public int version() {
+        return version;
+    }
+
+    // Islands claimed or levelled up here on the latest update, as indexes into World.islands()
+    int changedCount() {
+        return changedCount;
+    }
+
+    int changed(int i) {
+        return changed[i];
+    }
+}
@@ -0,0 +1,148 @@
+import java.awt.*;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.image.BufferStrategy;
+
+// Active rendering: a heavyweight Canvas with a BufferStrategy (page flipping when the
+// platform offers it) driven by one dedicated loop thread. The loop steps the world at a
+// fixed 16ms tick like the Swing timer did, renders at most targetFps frames per second
+// and sleeps out the rest of each frame, so frame times stay even instead of depending
+// on when Swing decides to coalesce repaints.
+public class GameCanvas extends Canvas implements Runnable {
+    private static final long WARP_RENDER_NANOS = 50_000_000L; // at most 20 frames/s while time-warping
+
+    private final World world;
+    private final Camera camera;
+    private final TimeWarp warp = new TimeWarp();
+    private final SoftwareRenderer software; // null = draw through Java2D
+    private final long frameNanos;
+    private volatile boolean running;
+    private Thread loop;
+
+    // Measured over the last second, for anyone who wants to display it
+    private volatile int fps;
+
+    public GameCanvas(World world, int targetFps, boolean softwareRendering) {
+        this.world = world;
+        this.software = softwareRendering ? new SoftwareRenderer() : null;
+        this.frameNanos = 1_000_000_000L / targetFps;
+        this.camera = new Camera(world.width, world.height, GamePanel.WIDTH, GamePanel.HEIGHT);
+        setPreferredSize(new Dimension(GamePanel.WIDTH, GamePanel.HEIGHT));
+        setIgnoreRepaint(true); // we paint ourselves; ignore OS paint requests
+        camera.attach(this);
+        warp.attach(this);
+        addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (e.getKeyCode() == KeyEvent.VK_O) world.cycleObserver(); // whose fog of war to show
+            }
+        });
+    }
+
+    // Must be called once the canvas is displayable (i.e. after the frame is packed)
+    public void startGame() {
+        createStrategy();
+        running = true;
+        loop = new Thread(this, "render-loop");
+        loop.start();
+    }
+
+    public void stopGame() {
+        running = false;
+    }
+
+    public int fps() {
+        return fps;
+    }
+
+    private void createStrategy() {
+        BufferCapabilities flip = new BufferCapabilities(
+                new ImageCapabilities(true), new ImageCapabilities(true),
+                BufferCapabilities.FlipContents.UNDEFINED);
+        try {
+            createBufferStrategy(2, flip);
+        } catch (AWTException e) {
+            createBufferStrategy(2); // blit-based strategy, still off-screen and tear-free
+        }
+    }
+
+    @Override
+    public void run() {
+        long previous = System.nanoTime();
+        long nextFrame = previous;
+        long fpsWindow = previous;
+        long lastRender = 0, renderNanos = 0;
+        int frames = 0;
+
+        while (running) {
+            long now = System.nanoTime();
+            long elapsed = now - previous;
+            previous = now;
+
+            // Fixed-step simulation via the time warp. While warping we only draw every
+            // so often and hand most of each frame slot to the sim; otherwise the sim gets
+            // whatever the last render left over. Either way it can't starve the UI.
+            boolean draw = !warp.warping() || now - lastRender >= WARP_RENDER_NANOS;
+            long budget = draw ? Math.max(frameNanos / 4, frameNanos - renderNanos - 1_000_000L) : frameNanos * 9 / 10;
+            int ran = warp.step(world, elapsed, budget);
+
+            if (!draw) {
+                if (ran == 0) Thread.yield(); // nothing owed yet at 10x; don't spin the core
+                nextFrame = System.nanoTime();
+                continue;
+            }
+            lastRender = System.nanoTime();
+            render();
+            renderNanos = System.nanoTime() - lastRender;
+            frames++;
+            if (now - fpsWindow >= 1_000_000_000L) {
+                fps = frames;
+                frames = 0;
+                fpsWindow = now;
+            }
+
+            // Pace to the target: sleep most of the gap, then yield the last ~1ms for accuracy
+            nextFrame += frameNanos;
+            long remaining = nextFrame - System.nanoTime();
+            if (remaining < -frameNanos) {
+                nextFrame = System.nanoTime(); // way behind, don't try to catch up on frames
+                continue;
+            }
+            if (remaining > 1_000_000L) {
+                try {
+                    Thread.sleep((remaining - 1_000_000L) / 1_000_000L);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            while (nextFrame - System.nanoTime() > 0) Thread.yield();
+        }
+    }
+
+    private void render() {
+        BufferStrategy strategy = getBufferStrategy();
+        do {
+            do {
+                Graphics2D g = (Graphics2D) strategy.getDrawGraphics();
+                try {
+                    if (software != null) {
+                        g.drawImage(software.render(world, camera), 0, 0, null);
+                    } else {
+                        g.setColor(Color.BLACK); // shows around the world when zoomed far out
+                        g.fillRect(0, 0, getWidth(), getHeight());
+                        Graphics2D view = (Graphics2D) g.create();
+                        camera.apply(view);
+                        world.render(view, camera.visible());
+                        view.dispose();
+                    }
+                    warp.drawHud(g, fps);
+                } finally {
+                    g.dispose();
+                }
+            } while (strategy.contentsRestored());
+            strategy.show();
+        } while (strategy.contentsLost());
+        Toolkit.getDefaultToolkit().sync(); // flush the pipeline on X11 so frames don't bunch up
+    }
+}
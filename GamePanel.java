@@ -1,76 +1,61 @@
 import javax.swing.*;
 import java.awt.*;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Iterator;
-import java.util.List;
-
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.image.BufferedImage;
+
+// Passive Swing view: a javax.swing.Timer steps the world on the EDT and asks
+// for a repaint. Kept as the fallback when active rendering isn't available.
+//
+// With dirty-region rendering on, the panel keeps a retained frame and a cached
+// static layer (ocean + islands). Each tick only the rectangles that entities left
+// or entered are redrawn into the frame, and Swing is asked to repaint just those.
+// The ocean animation is frozen in this mode; that's the price of a quiet screen.
 public class GamePanel extends JPanel {
     public static final int WIDTH = 1800;
     public static final int HEIGHT = 1000;
-    private List<Ship> ships = new ArrayList<>();
-    private List<Cannonball> cannonballs = new ArrayList<>();
-    private List<Swell> swells = new ArrayList<>();
-    private List<Island> islands = new ArrayList<>();
-    private List<Ship.Shipwreck> wrecks = new ArrayList<>();
-    private List<Ship.Rowboat> rowboats = new ArrayList<>();
-    private List<HealthDrop> healthDrops = new ArrayList<>();
+    private static final int ISLAND_PAD = 48; // island art (flag, port, pips) reaching past the radius
+    private final World world;
+    private final Camera camera;
+    private final boolean dirtyRendering;
     private Timer timer;
-
-    private final int shipsPerFaction = 5; // Number of ships to spawn per faction
-
-    // Add pirates list
-    private List<Pirate> pirates = new ArrayList<>();
+    private final TimeWarp warp = new TimeWarp();
+    private long lastStep = System.nanoTime();
+    private int skipped = 0; // timer events since the last repaint while warping
+
+    // Dirty-region state, only touched on the EDT
+    private BufferedImage frame, background;
+    private int backgroundVersion = -1, backgroundIslands = -1; // camera and Economy versions baked in
+    private DirtyRegions previous = new DirtyRegions(), current = new DirtyRegions();
+    private final DirtyRegions dirty = new DirtyRegions();
+    private final Rectangle scratch = new Rectangle();
+    private final DirtyRegions rebaked = new DirtyRegions(); // islands to re-render into the background
+    // Reads backgroundIslands instead of capturing, so it's allocated once
+    private final java.util.function.Consumer<Island> changedIsland = island -> {
+        if (island.revision <= backgroundIslands) return;
+        int r = island.radius + ISLAND_PAD;
+        rebaked.addWorld(island.x - r, island.y - r, 2 * r, 2 * r);
+    };
 
     public GamePanel() {
-        setPreferredSize(new Dimension(WIDTH, HEIGHT));
-        setDoubleBuffered(true);
-
-        // Create swells
-        for (int i = 0; i < 100; i++) {
-            swells.add(new Swell(WIDTH, HEIGHT));
-        }
-
-        // Create islands without overlap
-        int islandCount = 5;
-        int maxTries = 100;
-        Faction[] factions = Faction.values();
-        for (int i = 0; i < islandCount; i++) {
-            int tries = 0;
-            Island newIsland;
-            boolean overlaps;
-            do {
-                newIsland = new Island(WIDTH, HEIGHT, factions[i % factions.length]); // Pass faction
-                overlaps = false;
-                for (Island other : islands) {
-                    int dx = newIsland.x - other.x;
-                    int dy = newIsland.y - other.y;
-                    int distSq = dx * dx + dy * dy;
-                    int minDist = newIsland.radius + other.radius + 32; // 32px buffer
-                    if (distSq < minDist * minDist) {
-                        overlaps = true;
-                        break;
-                    }
-                }
-                tries++;
-            } while (overlaps && tries < maxTries);
-            islands.add(newIsland);
-
-            for (int p = 0; p < 3; p++) { // 3 pirates per island
-                pirates.add(new Pirate(newIsland.x, newIsland.y, newIsland.radius, newIsland.faction));
-            }
-        }
+        this(new World(WIDTH, HEIGHT), false);
+    }
 
-        // Create ships
-        for (Island island : islands) {
-            Point port = island.getPortLocation();
-            // Clamp spawn to be at least 16px from the border
-            int safeX = Math.max(16, Math.min(WIDTH - 16, port.x));
-            int safeY = Math.max(16, Math.min(HEIGHT - 16, port.y));
-            for (int j = 0; j < shipsPerFaction; j++) {
-                ships.add(new Ship(safeX, safeY, islands, island.faction, true)); // true = exact spawn
+    public GamePanel(World world, boolean dirtyRendering) {
+        this.world = world;
+        this.dirtyRendering = dirtyRendering;
+        this.camera = new Camera(world.width, world.height, WIDTH, HEIGHT);
+        setPreferredSize(new Dimension(WIDTH, HEIGHT));
+        setDoubleBuffered(!dirtyRendering); // the retained frame already is the back buffer
+        setOpaque(true);
+        camera.attach(this);
+        warp.attach(this);
+        addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (e.getKeyCode() == KeyEvent.VK_O) world.cycleObserver(); // whose fog of war to show
             }
-        }
+        });
     }
 
     public void startGame() {
@@ -79,125 +64,128 @@ public class GamePanel extends JPanel {
     }
 
     private void updateGame() {
-        List<Ship> shipsToRemove = new ArrayList<>();
-        List<Ship> shipsToAdd = new ArrayList<>(); // <-- Add this line
-
-        for (Ship ship : ships) {
-            ship.update(ships, cannonballs, islands, healthDrops);
-            if (ship.health <= 0) {
-                healthDrops.add(new HealthDrop(ship.x, ship.y));
-                // Find the faction's island
-                Island base = null;
-                for (Island island : islands) {
-                    if (island.faction == ship.faction) {
-                        base = island;
-                        break;
-                    }
-                }
-                if (base != null) {
-                    Point port = base.getPortLocation();
-                    int safeX = Math.max(16, Math.min(WIDTH - 16, port.x));
-                    int safeY = Math.max(16, Math.min(HEIGHT - 16, port.y));
-                    shipsToAdd.add(new Ship(safeX, safeY, islands, ship.faction, true));
-                }
-                shipsToRemove.add(ship);
-            }
+        // Up to 12ms of each 16ms timer event for the sim, so the EDT still gets to paint
+        long now = System.nanoTime();
+        warp.step(world, now - lastStep, 12_000_000L);
+        lastStep = now;
+        if (warp.warping() && ++skipped < 4) return; // repaint at a quarter rate while warping
+        skipped = 0;
+        if (retained()) {
+            repaintDirty();
+        } else {
+            backgroundVersion = -1; // rebuild the retained frame when we go back to it
+            repaint();
         }
-        ships.removeAll(shipsToRemove);
-        ships.addAll(shipsToAdd); // <-- Add new ships after removal
+    }
 
-        for (Cannonball cb : cannonballs) {
-            cb.move();
-        }
+    // The fog shifts every tick, so with an observer set we bypass the retained frame
+    private boolean retained() {
+        return dirtyRendering && world.observer() == null;
+    }
 
-        for (Swell s : swells) {
-            s.update(WIDTH, HEIGHT);
+    private void repaintDirty() {
+        int w = getWidth(), h = getHeight();
+        if (w <= 0 || h <= 0) return;
+        boolean rebuilt = false;
+        if (frame == null || frame.getWidth() != w || frame.getHeight() != h) {
+            frame = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+            background = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+            backgroundVersion = -1;
         }
-
-        // Update wrecks
-        for (Iterator<Ship.Shipwreck> it = wrecks.iterator(); it.hasNext(); ) {
-            Ship.Shipwreck wreck = it.next();
-            wreck.update();
-            if (wreck.life <= 0) it.remove();
+        if (backgroundVersion != camera.version()) {
+            // Camera moved: re-render the static layer and everything on top of it
+            backgroundVersion = camera.version();
+            backgroundIslands = world.economy().version();
+            Graphics2D bg = background.createGraphics();
+            bg.setColor(Color.BLACK);
+            bg.fillRect(0, 0, w, h);
+            camera.apply(bg);
+            world.renderStatic(bg, camera.visible(), 0);
+            bg.dispose();
+            rebuilt = true;
         }
 
-        // Update and remove expired health drops
-        List<HealthDrop> dropsToRemove = new ArrayList<>();
-        for (HealthDrop drop : healthDrops) {
-            drop.update();
-            if (drop.isExpired()) dropsToRemove.add(drop);
+        // Dirty = where things were last frame plus where they are now
+        DirtyRegions swap = previous;
+        previous = current;
+        current = swap;
+        current.begin(camera, w, h);
+        world.dynamicBounds(current);
+        dirty.begin(camera, w, h);
+        dirty.addAll(current);
+        dirty.addAll(previous);
+        if (!rebuilt && backgroundIslands != world.economy().version()) rebakeIslands(w, h);
+
+        Graphics2D g = frame.createGraphics();
+        if (rebuilt || dirty.isFull()) {
+            redraw(g, new Rectangle(0, 0, w, h));
+            g.dispose();
+            repaint();
+            return;
         }
-
-        // Ship collects health drop
-        Iterator<HealthDrop> dropIt = healthDrops.iterator();
-        while (dropIt.hasNext()) {
-            HealthDrop drop = dropIt.next();
-            boolean collected = false;
-            for (Ship ship : ships) {
-                int dx = ship.x - drop.x;
-                int dy = ship.y - drop.y;
-                int distSq = dx * dx + dy * dy;
-                int minDist = ship.size/2 + drop.size/2;
-                if (distSq < minDist * minDist) {
-                    ship.health = 10; // Fully heal the ship (set to max health)
-                    collected = true;
-                    break;
-                }
-            }
-            if (collected) dropIt.remove();
+        for (int i = 0; i < dirty.count(); i++) {
+            dirty.get(i, scratch);
+            redraw(g, scratch);
+            repaint(scratch.x, scratch.y, scratch.width, scratch.height);
         }
+        g.dispose();
+    }
 
-        // Remove expired drops
-        healthDrops.removeAll(dropsToRemove);
-
-        cannonballs.removeIf(Cannonball::hasHitTarget);
-
-        for (int i = 0; i < islands.size(); i++) {
-            Island island = islands.get(i);
-            for (Pirate pirate : pirates) {
-                if (pirate.faction == island.faction) {
-                    pirate.update(island);
-                }
-            }
+    // An island changed owner or level: re-render the static layer under just the islands
+    // that changed since it was baked, and mark them dirty so the frame picks them up
+    private void rebakeIslands(int w, int h) {
+        rebaked.begin(camera, w, h);
+        Rectangle view = camera.visible();
+        int reach = Island.MAX_RADIUS + ISLAND_PAD;
+        world.islandsIn(view.x - reach, view.y - reach, view.x + view.width + reach, view.y + view.height + reach,
+                changedIsland);
+        backgroundIslands = world.economy().version();
+        Graphics2D bg = background.createGraphics();
+        for (int i = 0; i < rebaked.count() && !rebaked.isFull(); i++) {
+            rebaked.get(i, scratch);
+            bg.setClip(scratch);
+            bg.setColor(Color.BLACK);
+            bg.fillRect(scratch.x, scratch.y, scratch.width, scratch.height);
+            Graphics2D g2 = (Graphics2D) bg.create();
+            camera.apply(g2);
+            world.renderStatic(g2, camera.toWorld(scratch), 0);
+            g2.dispose();
+        }
+        if (rebaked.isFull()) {
+            bg.setClip(null);
+            bg.setColor(Color.BLACK);
+            bg.fillRect(0, 0, w, h);
+            camera.apply(bg);
+            world.renderStatic(bg, view, 0);
         }
+        bg.dispose();
+        dirty.addAll(rebaked);
+    }
 
-        repaint();
+    // Restores the static layer under a screen rectangle and draws the entities touching it
+    private void redraw(Graphics2D g, Rectangle screen) {
+        g.setClip(screen);
+        g.drawImage(background, 0, 0, null);
+        Graphics2D g2 = (Graphics2D) g.create();
+        camera.apply(g2);
+        world.renderDynamic(g2, camera.toWorld(screen));
+        g2.dispose();
     }
 
     @Override
     protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
-        // Draw ocean background with swells
-        drawOcean(g);
-
-        // Draw islands
-        for (Island island : islands) island.draw(g);
-
-        // Draw ships, cannonballs, etc.
-        for (Ship ship : ships) ship.draw(g);
-        for (Cannonball cb : cannonballs) cb.draw(g);
-        for (Ship.Shipwreck wreck : wrecks) wreck.draw(g);
-        for (Ship.Rowboat boat : rowboats) boat.draw(g);
-        // Draw health drops
-        for (HealthDrop drop : healthDrops) drop.draw(g);
-        for (Pirate pirate : pirates) pirate.draw(g);
-    }
-
-    private void drawOcean(Graphics g) {
-        Graphics2D g2 = (Graphics2D) g;
-
-        // Base ocean blue
-        g2.setColor(new Color(0, 70, 180));
-        g2.fillRect(0, 0, WIDTH, HEIGHT);
-
-        // Swells (fading pixel wave lines)
-        for (Swell s : swells) {
-            float alpha = s.getAlpha();
-            if (alpha <= 0) continue;
-
-            g2.setColor(new Color(120, 180, 230, (int)(alpha * 255)));
-            g2.fillRect(s.x, s.y, s.width, s.height);
+        if (retained() && frame != null) {
+            // Swing hands us the union of the dirty rects as the clip; this is just a blit
+            g.drawImage(frame, 0, 0, null);
+            return;
         }
+        super.paintComponent(g);
+        g.setColor(Color.BLACK); // shows around the world when zoomed far out
+        g.fillRect(0, 0, getWidth(), getHeight());
+        Graphics2D g2 = (Graphics2D) g.create();
+        camera.apply(g2);
+        world.render(g2, camera.visible());
+        g2.dispose();
+        warp.drawHud(g, 0); // full repaints only; in dirty mode the HUD would cost a dirty rect every tick
     }
 }
-
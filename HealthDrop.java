@@ -1,25 +1,28 @@
 import java.awt.*;
 
-public class HealthDrop {
+// Runnable so the drop itself can be its expiry timer: run() only marks it expired
+public class HealthDrop implements Runnable {
     int x, y;
     int size = 16;
-    int life = 300; // frames before disappearing
+    static final int LIFE = 300; // frames before disappearing
+    TimingWheel.Timeout expiry; // cancelled when a ship picks the drop up
+    int netId; // see SnapshotServer
+    int loot;  // goes into the hold of whoever picks it up (see Economy)
+    boolean expired; // swept out of the world's list right after the timer fires
+    private static final Color GREEN = new Color(60, 220, 60);
 
     public HealthDrop(int x, int y) {
         this.x = x;
         this.y = y;
     }
 
-    public void update() {
-        life--;
-    }
-
-    public boolean isExpired() {
-        return life <= 0;
+    @Override
+    public void run() {
+        expired = true;
     }
 
     public void draw(Graphics g) {
-        g.setColor(new Color(60, 220, 60));
+        g.setColor(GREEN);
         g.fillOval(x - size/2, y - size/2, size, size);
         g.setColor(Color.WHITE);
         g.drawString("+", x - 4, y + 5);
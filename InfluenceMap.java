@@ -0,0 +1,125 @@
+import java.util.List;
+
+// Per-faction influence on a coarse grid.
+// Every ship stamps a small falloff kernel around the cell it sits in. The stamp
+// only moves when the ship crosses into a different cell (or dies), so keeping the
+// maps current costs O(ships that changed cell) per tick instead of a full rebuild.
+public class InfluenceMap {
+    public static final int CELL = 64; // pixels per grid cell
+    private static final int RADIUS = 2; // stamp radius in cells
+
+    final int cols, rows;
+    private final int factionCount = Faction.values().length;
+    private final int[][] influence; // [faction][cell] summed stamp weights
+    private final int[][] presence;  // [faction][cell] ships actually in the cell
+    private final int[] total;       // all factions summed, so enemy strength is O(1)
+
+    public InfluenceMap(int worldWidth, int worldHeight) {
+        cols = (worldWidth + CELL - 1) / CELL;
+        rows = (worldHeight + CELL - 1) / CELL;
+        influence = new int[factionCount][cols * rows];
+        presence = new int[factionCount][cols * rows];
+        total = new int[cols * rows];
+    }
+
+    // Call after a ship moved; does nothing unless it entered a new cell
+    public void track(Ship ship) {
+        int cell = cellOf(ship.x, ship.y);
+        if (cell == ship.influenceCell) return;
+        if (ship.influenceCell >= 0) stamp(ship.faction, ship.influenceCell, -1);
+        stamp(ship.faction, cell, 1);
+        ship.influenceCell = cell;
+    }
+
+    // Call when a ship dies or otherwise leaves the simulation
+    public void remove(Ship ship) {
+        if (ship.influenceCell < 0) return;
+        stamp(ship.faction, ship.influenceCell, -1);
+        ship.influenceCell = -1;
+    }
+
+    private void stamp(Faction faction, int cell, int sign) {
+        int f = faction.ordinal();
+        int cx = cell % cols;
+        int cy = cell / cols;
+        presence[f][cell] += sign;
+        for (int dy = -RADIUS; dy <= RADIUS; dy++) {
+            int y = cy + dy;
+            if (y < 0 || y >= rows) continue;
+            for (int dx = -RADIUS; dx <= RADIUS; dx++) {
+                int x = cx + dx;
+                if (x < 0 || x >= cols) continue;
+                // Chebyshev falloff: 3 in the centre, 1 at the edge of the stamp
+                int w = (RADIUS + 1 - Math.max(Math.abs(dx), Math.abs(dy))) * sign;
+                int i = y * cols + x;
+                influence[f][i] += w;
+                total[i] += w;
+            }
+        }
+    }
+
+    int cellOf(int x, int y) {
+        int cx = Math.max(0, Math.min(cols - 1, x / CELL));
+        int cy = Math.max(0, Math.min(rows - 1, y / CELL));
+        return cy * cols + cx;
+    }
+
+    // Friendly influence at a world position
+    public int strength(Faction faction, int x, int y) {
+        return influence[faction.ordinal()][cellOf(x, y)];
+    }
+
+    // Summed influence of every other faction at a world position
+    public int threat(Faction faction, int x, int y) {
+        int cell = cellOf(x, y);
+        return total[cell] - influence[faction.ordinal()][cell];
+    }
+
+    // How far enemies outweigh friends at an island (positive = under threat)
+    public int pressure(Faction faction, Island island) {
+        int cell = cellOf(island.x, island.y);
+        int own = influence[faction.ordinal()][cell];
+        return total[cell] - own - own;
+    }
+
+    // Enemy-occupied cell within range that is cheapest to attack, or -1; see cellX/cellY.
+    // Only cells the faction can see count (fog may be null for no fog of war).
+    public int weakestEnemyCell(Faction faction, int x, int y, int range, Visibility fog) {
+        int f = faction.ordinal();
+        int centre = cellOf(x, y);
+        int ccx = centre % cols;
+        int ccy = centre / cols;
+        int r = (range + CELL - 1) / CELL;
+        int best = -1;
+        int bestScore = Integer.MAX_VALUE;
+        for (int cy = Math.max(0, ccy - r); cy <= Math.min(rows - 1, ccy + r); cy++) {
+            for (int cx = Math.max(0, ccx - r); cx <= Math.min(cols - 1, ccx + r); cx++) {
+                int i = cy * cols + cx;
+                if (presence(i) - presence[f][i] <= 0) continue;
+                if (fog != null && !fog.visibleCell(faction, i)) continue;
+                // Enemy strength around the cell, minus the support we already have there
+                int score = (total[i] - influence[f][i]) - influence[f][i];
+                if (score < bestScore) {
+                    bestScore = score;
+                    best = i;
+                }
+            }
+        }
+        return best;
+    }
+
+    // World position of a cell's centre
+    public int cellX(int cell) {
+        return (cell % cols) * CELL + CELL / 2;
+    }
+
+    public int cellY(int cell) {
+        return (cell / cols) * CELL + CELL / 2;
+    }
+
+    private int presence(int cell) {
+        int n = 0;
+        for (int f = 0; f < factionCount; f++) n += presence[f][cell];
+        return n;
+    }
+}
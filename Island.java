@@ -6,10 +6,24 @@ import java.util.Random;
 import java.awt.Point;
 
 public class Island {
-    public final Faction faction;
+    public Faction faction; // changes when the island is claimed (see Economy)
+    int level;              // development, 0..Economy.MAX_LEVEL
+    int revision;           // Economy.version() when faction or level last changed; for cached art
+    int index;              // position in World.islands(), set when the world is built
     public int x, y, radius;
     private int[] outlineX, outlineY;
-    private static final Random rand = new Random();
+    private Polygon outline;     // built once with the outline, for isLand
+    private Point portLocation;  // islands never move, so this is computed once
+    public static final int MAX_RADIUS = 40 + 4 * 8;
+    private static final double FEATURE_SPACING = 23; // just over 16*sqrt(2)
+
+    // Palette, shared so drawing doesn't allocate
+    private static final Color WATER = new Color(80, 140, 200);
+    private static final Color SAND = new Color(222, 202, 142);
+    private static final Color GRASS = new Color(106, 190, 48);
+    private static final Color ROCK = new Color(120, 120, 120);
+    private static final Color TRUNK = new Color(139, 69, 19);
+    private static final Color GOLD = new Color(240, 200, 40);
 
     // Features
     private List<Tree> trees = new ArrayList<>();
@@ -17,29 +31,39 @@ public class Island {
     private Port port;
 
     // Randomizer constructor (pixel style, random spot)
-    public Island(int mapWidth, int mapHeight, Faction faction) { // Add faction param
+    public Island(int mapWidth, int mapHeight, Faction faction, Random rand) { // Add faction param
         this.faction = faction; // Set faction
         // Pixel-style radius (multiple of 8)
         this.radius = 40 + rand.nextInt(5) * 8;
         // Random position, avoid edges
         this.x = radius + rand.nextInt((mapWidth - 2 * radius) / 8) * 8;
         this.y = radius + rand.nextInt((mapHeight - 2 * radius) / 8) * 8;
-        generateOutline();
-        randomizeFeatures();
+        generateOutline(rand);
+        randomizeFeatures(rand);
+    }
+
+    // Same pixel-style radius distribution the random constructor uses
+    public static int randomRadius(Random rand) {
+        return 40 + rand.nextInt(5) * 8;
     }
 
     // Manual constructor for fixed islands
     public Island(int x, int y, int radius, Faction faction) { // Add faction param
+        this(x, y, radius, faction, new Random());
+    }
+
+    // Outline, port and decorations come from rand; a seeded world passes its own
+    public Island(int x, int y, int radius, Faction faction, Random rand) {
         this.x = x;
         this.y = y;
         this.radius = radius;
         this.faction = faction; // Set faction
-        generateOutline();
-        randomizeFeatures();
+        generateOutline(rand);
+        randomizeFeatures(rand);
     }
 
     // Generate a soft, square, pixel-art outline for the island (Stardew-like, more square)
-    private void generateOutline() {
+    private void generateOutline(Random rand) {
         int points = 16;
         outlineX = new int[points];
         outlineY = new int[points];
@@ -55,10 +79,11 @@ public class Island {
             outlineX[i] = (px / 4) * 4;
             outlineY[i] = (py / 4) * 4;
         }
+        outline = new Polygon(outlineX, outlineY, points);
     }
 
     // Randomly add trees, houses, and always a port
-    private void randomizeFeatures() {
+    private void randomizeFeatures(Random rand) {
         // Place the port (dock) on a random edge, facing outward from the island center
         int edgePoint = rand.nextInt(outlineX.length);
         int px = outlineX[edgePoint];
@@ -69,60 +94,23 @@ public class Island {
 
         port = new Port(px, py, angle);
 
-        // Keep track of occupied spots (as rectangles)
-        List<Rectangle> occupied = new ArrayList<>();
-        // Reserve port area
-        occupied.add(new Rectangle(px - 20, py - 20, 40, 40));
-
-        // Random houses (try to avoid overlap)
+        // Candidate spots come from a Poisson-disk sample over the inner island. Spacing them
+        // more than 16*sqrt(2) apart means no two can snap into the same 16px feature cell,
+        // so houses and trees never overlap and nothing needs retrying
+        List<Point> spots = PoissonDisk.sampleDisc(x, y, radius * 0.7, FEATURE_SPACING, rand);
         int houseCount = rand.nextInt(3); // 0, 1, or 2 houses
-        for (int i = 0; i < houseCount; i++) {
-            boolean placed = false;
-            for (int attempt = 0; attempt < 20 && !placed; attempt++) {
-                double hAngle = rand.nextDouble() * 2 * Math.PI;
-                int hx = x + (int)(Math.cos(hAngle) * radius * 0.4);
-                int hy = y + (int)(Math.sin(hAngle) * radius * 0.4);
-                hx = (hx / 4) * 4; hy = (hy / 4) * 4;
-                Rectangle rect = new Rectangle(hx, hy, 16, 16);
-                boolean overlaps = false;
-                for (Rectangle occ : occupied) {
-                    if (rect.intersects(occ)) {
-                        overlaps = true;
-                        break;
-                    }
-                }
-                if (!overlaps) {
-                    houses.add(new House(hx, hy));
-                    occupied.add(rect);
-                    placed = true;
-                }
-            }
-        }
-
-        // Random trees (try to avoid overlap)
         int treeCount = 2 + rand.nextInt(4);
-        for (int i = 0; i < treeCount; i++) {
-            boolean placed = false;
-            for (int attempt = 0; attempt < 20 && !placed; attempt++) {
-                double tAngle = rand.nextDouble() * 2 * Math.PI;
-                int tx = x + (int)(Math.cos(tAngle) * radius * rand.nextDouble() * 0.7);
-                int ty = y + (int)(Math.sin(tAngle) * radius * rand.nextDouble() * 0.7);
-                tx = (tx / 4) * 4; ty = (ty / 4) * 4;
-                int tw = 12 + rand.nextInt(2) * 4, th = 16 + rand.nextInt(2) * 4;
-                Rectangle rect = new Rectangle(tx, ty, tw, th);
-                boolean overlaps = false;
-                for (Rectangle occ : occupied) {
-                    if (rect.intersects(occ)) {
-                        overlaps = true;
-                        break;
-                    }
-                }
-                if (!overlaps) {
-                    trees.add(new Tree(tx, ty));
-                    occupied.add(rect);
-                    placed = true;
-                }
+        double houseRing = radius * 0.4;
+        for (Point spot : spots) {
+            // Reserve port area
+            if (Math.abs(spot.x - px) < 28 && Math.abs(spot.y - py) < 28) continue;
+            int dx = spot.x - x, dy = spot.y - y;
+            if (houses.size() < houseCount && dx * dx + dy * dy <= houseRing * houseRing) {
+                houses.add(new House(spot.x, spot.y));
+            } else if (trees.size() < treeCount) {
+                trees.add(new Tree(spot.x, spot.y));
             }
+            if (houses.size() == houseCount && trees.size() == treeCount) break;
         }
     }
 
@@ -135,11 +123,11 @@ public class Island {
         int gr = (radius / 16) * 16;
 
         // 1. Water outline (snapped)
-        g2.setColor(new Color(80, 140, 200));
+        g2.setColor(WATER);
         g2.fillRect(gx - gr - 16, gy - gr - 16, (gr + 16) * 2, (gr + 16) * 2);
 
         // 2. Main sand body (blocky, snapped)
-        g2.setColor(new Color(222, 202, 142));
+        g2.setColor(SAND);
         for (int dx = -gr; dx < gr; dx += 16) {
             for (int dy = -gr; dy < gr; dy += 16) {
                 int dist = (int)Math.sqrt(dx*dx + dy*dy);
@@ -150,7 +138,7 @@ public class Island {
         }
 
         // 3. Grass border (blocky, snapped)
-        g2.setColor(new Color(106, 190, 48));
+        g2.setColor(GRASS);
         for (int dx = -gr; dx < gr; dx += 16) {
             for (int dy = -gr; dy < gr; dy += 16) {
                 int dist = (int)Math.sqrt(dx*dx + dy*dy);
@@ -161,14 +149,14 @@ public class Island {
         }
 
         // 4. Pixel-art rocks (snapped)
-        g2.setColor(new Color(120, 120, 120));
+        g2.setColor(ROCK);
         g2.fillRect(gx - 16, gy + 16, 8, 8);
         g2.fillRect(gx + 16, gy - 16, 8, 8);
 
         // 5. Pixel-art palm (snapped)
-        g2.setColor(new Color(139, 69, 19));
+        g2.setColor(TRUNK);
         g2.fillRect(gx + 16, gy - 32, 8, 16); // trunk
-        g2.setColor(new Color(106, 190, 48));
+        g2.setColor(GRASS);
         g2.fillRect(gx + 8, gy - 40, 16, 8); // leaves
 
         // 6. Draw port (snapped)
@@ -185,30 +173,33 @@ public class Island {
         // Draw the dock as before...
 
         // Draw the faction flag at the port
-        Color factionColor = switch (faction) {
-            case RED -> Color.RED;
-            case BLUE -> Color.BLUE;
-            case GREEN -> Color.GREEN;
-            case YELLOW -> Color.YELLOW;
-            case PURPLE -> new Color(128, 0, 128);
-        };
-        g2.setColor(factionColor);
+        g2.setColor(Ship.factionColor(faction));
         g2.fillRect(port.x - 6, port.y - 28, 12, 12); // flag square above dock
         g2.setColor(Color.BLACK);
         g2.drawRect(port.x - 6, port.y - 28, 12, 12); // flag border
         // Optional: draw a flagpole
-        g2.setColor(new Color(120, 120, 120));
+        g2.setColor(ROCK);
         g2.fillRect(port.x - 1, port.y - 16, 2, 16);
+
+        // One gold pip beside the flag per development level
+        g2.setColor(GOLD);
+        for (int l = 0; l < level; l++) g2.fillRect(port.x + 8, port.y - 28 + l * 5, 4, 4);
     }
 
-    // Returns a point near the edge for respawn/port
+    // Returns a point near the edge for respawn/port.
+    // Shared and cached: callers must copy it rather than modify it.
     public Point getPortLocation() {
-        return new Point(x, y + radius + 18);
+        if (portLocation == null) portLocation = new Point(x, y + radius + 18);
+        return portLocation;
     }
 
     // --- Feature classes ---
 
     private static class Tree {
+        private static final Color BARK = new Color(120, 80, 40);
+        private static final Color LEAVES = new Color(70, 160, 70);
+        private static final Color LEAVES_LIGHT = new Color(100, 200, 100);
+        private static final Color SHINE = new Color(180, 255, 180);
         int x, y;
         Tree(int x, int y) {
             this.x = (x / 16) * 16;
@@ -216,26 +207,28 @@ public class Island {
         }
         void draw(Graphics2D g2) {
             // Trunk (2x6)
-            g2.setColor(new Color(120, 80, 40));
+            g2.setColor(BARK);
             g2.fillRect(x + 7, y + 10, 2, 6);
             // Leaves (12x8)
-            g2.setColor(new Color(70, 160, 70));
+            g2.setColor(LEAVES);
             g2.fillRect(x + 2, y + 2, 12, 8);
-            g2.setColor(new Color(100, 200, 100));
+            g2.setColor(LEAVES_LIGHT);
             g2.fillRect(x + 4, y + 4, 8, 4);
-            g2.setColor(new Color(180, 255, 180));
+            g2.setColor(SHINE);
             g2.fillRect(x + 7, y + 5, 2, 2);
         }
     }
 
     private static class House {
+        private static final Color WALL = new Color(210, 180, 140);
+        private static final Color ROOF = new Color(180, 60, 60);
+        private static final Color DOOR = new Color(90, 60, 40);
+        private static final Color WINDOW = new Color(180, 220, 255);
         int x, y;
-        Color wall, roof;
+        Color wall = WALL, roof = ROOF;
         House(int x, int y) {
             this.x = (x / 16) * 16;
             this.y = (y / 16) * 16;
-            wall = new Color(210, 180, 140);
-            roof = new Color(180, 60, 60);
         }
         void draw(Graphics2D g2) {
             // Walls (12x8)
@@ -245,15 +238,18 @@ public class Island {
             g2.setColor(roof);
             g2.fillRect(x + 2, y + 2, 12, 4);
             // Door (3x4)
-            g2.setColor(new Color(90, 60, 40));
+            g2.setColor(DOOR);
             g2.fillRect(x + 7, y + 10, 3, 4);
             // Window (3x3)
-            g2.setColor(new Color(180, 220, 255));
+            g2.setColor(WINDOW);
             g2.fillRect(x + 4, y + 8, 3, 3);
         }
     }
 
     private static class Port {
+        private static final Color DOCK = new Color(140, 110, 60);
+        private static final Color POST = new Color(110, 80, 40);
+        private static final Color PLANK = new Color(180, 140, 80);
         int x, y;
         double angle;
         Port(int x, int y, double angle) {
@@ -272,17 +268,17 @@ public class Island {
             g2.rotate(angle);
 
             // Dock body (blocky, Stardew style)
-            g2.setColor(new Color(140, 110, 60));
+            g2.setColor(DOCK);
             g2.fillRect(-dockW / 2, 0, dockW, dockH);
 
             // Dock posts (blocky, grid-aligned)
-            g2.setColor(new Color(110, 80, 40));
+            g2.setColor(POST);
             for (int i = -dockW / 2; i < dockW / 2; i += 8) {
                 g2.fillRect(i, dockH - 2, postW, postH);
             }
 
             // Plank lines (lighter color, grid-aligned)
-            g2.setColor(new Color(180, 140, 80));
+            g2.setColor(PLANK);
             for (int i = -dockW / 2; i < dockW / 2; i += 8) {
                 g2.drawLine(i + 2, 1, i + 2, dockH - 2);
             }
@@ -292,8 +288,7 @@ public class Island {
     }
 
     public boolean isLand(int px, int py) {
-        if (outlineX == null || outlineY == null) return false;
-        Polygon poly = new Polygon(outlineX, outlineY, outlineX.length);
-        return poly.contains(px, py);
+        if (outline == null) return false;
+        return outline.contains(px, py);
     }
 }
@@ -0,0 +1,64 @@
+import java.util.Random;
+
+// Rough comparison of the old one-object-per-particle update against ParticleBatch.
+// There's no build/JMH setup in this tree, so this is a plain warm-up-then-measure loop:
+//   java KinematicsBench                                   (scalar batch only)
+//   java --add-modules jdk.incubator.vector KinematicsBench (adds the SIMD kernel, once
+//                                                           simd/ is compiled; see VectorKinematics)
+public class KinematicsBench {
+    private static final int PARTICLES = 200_000;
+    private static final int WARMUP = 200;
+    private static final int ROUNDS = 500;
+
+    // Same shape and arithmetic as the per-object Debris the cannonballs used to own
+    private static class Debris {
+        double x, y, dx, dy;
+        int life;
+
+        Debris(double x, double y, double dx, double dy, int life) {
+            this.x = x;
+            this.y = y;
+            this.dx = dx;
+            this.dy = dy;
+            this.life = life;
+        }
+
+        void move() {
+            x += dx;
+            y += dy;
+            dy += 0.2;
+            life--;
+        }
+    }
+
+    public static void main(String[] args) {
+        Random rand = new Random(42);
+        Debris[] objects = new Debris[PARTICLES];
+        ParticleBatch batch = new ParticleBatch(PARTICLES, Cannonball.DEBRIS_GRAVITY);
+        for (int i = 0; i < PARTICLES; i++) {
+            float x = rand.nextInt(1800), y = rand.nextInt(1000);
+            float dx = rand.nextFloat() - 0.5f, dy = rand.nextFloat() - 0.5f;
+            objects[i] = new Debris(x, y, dx, dy, Integer.MAX_VALUE);
+            // Lifetimes long enough that nothing is compacted away mid-run
+            batch.add(x, y, dx, dy, Float.MAX_VALUE);
+        }
+
+        report("per-object", PARTICLES, () -> {
+            for (Debris d : objects) d.move();
+        });
+        report("batch/scalar", PARTICLES, () -> batch.step(ParticleBatch.SCALAR));
+        if (ParticleBatch.KERNEL != ParticleBatch.SCALAR) {
+            report("batch/vector", PARTICLES, () -> batch.step(ParticleBatch.KERNEL));
+        } else {
+            System.out.println("batch/vector   skipped (compile simd/ and run with --add-modules jdk.incubator.vector)");
+        }
+    }
+
+    private static void report(String name, int n, Runnable tick) {
+        for (int i = 0; i < WARMUP; i++) tick.run();
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) tick.run();
+        double nsPerTick = (System.nanoTime() - start) / (double) ROUNDS;
+        System.out.printf("%-14s %9.1f us/tick  %6.2f ns/particle%n", name, nsPerTick / 1000, nsPerTick / n);
+    }
+}
@@ -0,0 +1,241 @@
+import java.awt.*;
+import java.util.Random;
+
+// Floating loot crates, kept as plain int arrays so a sea of 100k+ of them is a few MB
+// and costs no garbage to spawn, pick up or expire.
+//
+// Slots come off a free list. Each live slot is threaded into two intrusive lists (index
+// arrays, no nodes): one for its CELL, which pickups and rendering walk, and one for the
+// tick it sinks on. Every crate floats for the same LIFE, so the sink lists form a wheel
+// of LIFE + 1 ticks and each update empties exactly one of them; a pickup unlinks from
+// both in O(1), so nothing lingers after a crate is gone.
+//
+// The spawner keeps each REGION topped up to density crates, visiting a slice of the
+// regions each tick, and destroyed ships spill their hold as a handful of crates.
+public class LootField {
+    static final int CELL = 128;         // pickup / render buckets
+    static final int REGION = 512;       // density is kept per REGION x REGION px
+    static final int LIFE = 3600;        // ticks a crate floats before it sinks
+    static final int RADIUS = 4;         // half a crate, for pickups
+    static final int FLOTSAM = 5;        // value of a crate the sea washes up
+    static final int CRATE = 10;         // value of a crate from a ship's hold
+    static final int MAX_SPILL = 8;      // crates per sinking ship; a big hold makes richer crates
+    private static final int SWEEP_TICKS = 60; // every region is topped up at least this often
+    private static final int TRIES = 4;  // spawn attempts per missing crate before giving up on a region
+    private static final Color WOOD = new Color(150, 100, 45);
+    private static final Color BAND = new Color(90, 55, 20);
+    private static final Color GOLD = new Color(255, 210, 60);
+
+    // Open water at a position? Supplied by the world, which knows where the islands are
+    interface Water {
+        boolean open(int x, int y);
+    }
+
+    interface Sink {
+        void crate(int x, int y, int value);
+    }
+
+    final int cols, rows, regionCols, regionRows;
+    private final int width, height;
+    private final int spawnX0, spawnX1; // the spawner only fills regions whose centre is in here (see ShardWorker)
+
+    // Per slot; value 0 marks a free slot
+    private int[] x, y, value, next, prev, sink, sinkNext, sinkPrev;
+    private int[] free;
+    private int freeCount, live;
+    private final int[] cellHead;
+    private final int[] regionCount;
+
+    private final int[] sinkHead = new int[LIFE + 1]; // by tick % (LIFE + 1)
+    private long swept = -1; // last tick whose sink list was emptied
+
+    private int density;
+    private int cursor; // next region the spawner visits
+
+    public LootField(int width, int height, int spawnX0, int spawnX1, int density) {
+        this.width = width;
+        this.height = height;
+        this.spawnX0 = spawnX0;
+        this.spawnX1 = spawnX1;
+        this.density = density;
+        cols = (width + CELL - 1) / CELL;
+        rows = (height + CELL - 1) / CELL;
+        regionCols = (width + REGION - 1) / REGION;
+        regionRows = (height + REGION - 1) / REGION;
+        cellHead = new int[cols * rows];
+        java.util.Arrays.fill(cellHead, -1);
+        regionCount = new int[regionCols * regionRows];
+        java.util.Arrays.fill(sinkHead, -1);
+        allocate(Math.max(64, regionCount.length * density * 2));
+    }
+
+    private void allocate(int capacity) {
+        int old = x == null ? 0 : x.length;
+        x = grow(x, capacity);
+        y = grow(y, capacity);
+        value = grow(value, capacity);
+        next = grow(next, capacity);
+        prev = grow(prev, capacity);
+        sink = grow(sink, capacity);
+        sinkNext = grow(sinkNext, capacity);
+        sinkPrev = grow(sinkPrev, capacity);
+        free = grow(free, capacity);
+        // Hand out low slots first so the arrays fill from the front
+        for (int s = capacity - 1; s >= old; s--) free[freeCount++] = s;
+    }
+
+    private static int[] grow(int[] a, int capacity) {
+        return a == null ? new int[capacity] : java.util.Arrays.copyOf(a, capacity);
+    }
+
+    public int live() {
+        return live;
+    }
+
+    public int capacity() {
+        return x.length;
+    }
+
+    public int density() {
+        return density;
+    }
+
+    // Crates per region the spawner aims for; lowering it lets the surplus float until it sinks
+    public void setDensity(int density) {
+        this.density = density;
+    }
+
+    // Adds a crate that sinks LIFE ticks from now; returns the slot
+    int add(int px, int py, int v, long now) {
+        if (freeCount == 0) allocate(x.length * 2);
+        int s = free[--freeCount];
+        px = Math.max(0, Math.min(width - 1, px));
+        py = Math.max(0, Math.min(height - 1, py));
+        x[s] = px;
+        y[s] = py;
+        value[s] = Math.max(1, v);
+        int cell = cellOf(px, py);
+        next[s] = cellHead[cell];
+        prev[s] = -1;
+        if (cellHead[cell] >= 0) prev[cellHead[cell]] = s;
+        cellHead[cell] = s;
+        int tick = (int) ((now + LIFE) % sinkHead.length);
+        sink[s] = tick;
+        sinkNext[s] = sinkHead[tick];
+        sinkPrev[s] = -1;
+        if (sinkHead[tick] >= 0) sinkPrev[sinkHead[tick]] = s;
+        sinkHead[tick] = s;
+        regionCount[regionOf(px, py)]++;
+        live++;
+        return s;
+    }
+
+    private void remove(int s) {
+        int cell = cellOf(x[s], y[s]);
+        if (prev[s] >= 0) next[prev[s]] = next[s];
+        else cellHead[cell] = next[s];
+        if (next[s] >= 0) prev[next[s]] = prev[s];
+        if (sinkPrev[s] >= 0) sinkNext[sinkPrev[s]] = sinkNext[s];
+        else sinkHead[sink[s]] = sinkNext[s];
+        if (sinkNext[s] >= 0) sinkPrev[sinkNext[s]] = sinkPrev[s];
+        regionCount[regionOf(x[s], y[s])]--;
+        value[s] = 0;
+        free[freeCount++] = s;
+        live--;
+    }
+
+    // Sinks what's due, then tops up this tick's share of the regions
+    public void update(long now, Random rand, Water water) {
+        // Normally one wheel slot per tick; after a gap (e.g. a paused world) at most a full turn
+        long from = swept < 0 ? now : Math.max(swept + 1, now - LIFE);
+        for (long t = from; t <= now; t++) {
+            int tick = (int) (t % sinkHead.length);
+            while (sinkHead[tick] >= 0) remove(sinkHead[tick]);
+        }
+        swept = now;
+
+        int regions = regionCount.length;
+        int visits = (regions + SWEEP_TICKS - 1) / SWEEP_TICKS;
+        for (int v = 0; v < visits; v++) {
+            int r = cursor;
+            cursor = (cursor + 1) % regions;
+            int rx = (r % regionCols) * REGION, ry = (r / regionCols) * REGION;
+            int rw = Math.min(REGION, width - rx), rh = Math.min(REGION, height - ry);
+            int centre = rx + rw / 2;
+            if (centre < spawnX0 || centre >= spawnX1) continue; // another shard's water
+            int tries = (density - regionCount[r]) * TRIES;
+            while (regionCount[r] < density && tries-- > 0) {
+                int px = rx + rand.nextInt(rw), py = ry + rand.nextInt(rh);
+                if (water.open(px, py)) add(px, py, FLOTSAM, now);
+            }
+        }
+    }
+
+    // A sinking ship's hold, scattered around the wreck; the crates share out the cargo
+    public void spill(int px, int py, int cargo, long now, Random rand) {
+        if (cargo <= 0) return;
+        int crates = Math.min(MAX_SPILL, (cargo + CRATE - 1) / CRATE);
+        for (int i = 0; i < crates; i++) {
+            int v = cargo / crates + (i < cargo % crates ? 1 : 0);
+            add(px + rand.nextInt(49) - 24, py + rand.nextInt(49) - 24, v, now);
+        }
+    }
+
+    // Picks up every crate touching a hull of the given radius; returns their total value
+    public int collect(int px, int py, int radius) {
+        int reach = radius + RADIUS;
+        int cx0 = Math.max(0, (px - reach) / CELL), cx1 = Math.min(cols - 1, (px + reach) / CELL);
+        int cy0 = Math.max(0, (py - reach) / CELL), cy1 = Math.min(rows - 1, (py + reach) / CELL);
+        int total = 0;
+        for (int cy = cy0; cy <= cy1; cy++) {
+            for (int cx = cx0; cx <= cx1; cx++) {
+                for (int s = cellHead[cy * cols + cx]; s >= 0; ) {
+                    int n = next[s];
+                    int dx = x[s] - px, dy = y[s] - py;
+                    if (dx * dx + dy * dy < reach * reach) {
+                        total += value[s];
+                        remove(s);
+                    }
+                    s = n;
+                }
+            }
+        }
+        return total;
+    }
+
+    // Every crate in the world rectangle (and the odd one just outside it)
+    public void forEachIn(int x0, int y0, int x1, int y1, Sink sink) {
+        int cx0 = Math.max(0, x0 / CELL), cx1 = Math.min(cols - 1, x1 / CELL);
+        int cy0 = Math.max(0, y0 / CELL), cy1 = Math.min(rows - 1, y1 / CELL);
+        for (int cy = cy0; cy <= cy1; cy++) {
+            for (int cx = cx0; cx <= cx1; cx++) {
+                for (int s = cellHead[cy * cols + cx]; s >= 0; s = next[s]) sink.crate(x[s], y[s], value[s]);
+            }
+        }
+    }
+
+    public int regionCount(int region) {
+        return regionCount[region];
+    }
+
+    private int cellOf(int px, int py) {
+        return (py / CELL) * cols + px / CELL;
+    }
+
+    private int regionOf(int px, int py) {
+        return (py / REGION) * regionCols + px / REGION;
+    }
+
+    // An 8x6 crate; ones from a ship's hold get a glint of gold
+    static void draw(Graphics g, int x, int y, int value) {
+        g.setColor(WOOD);
+        g.fillRect(x - 4, y - 3, 8, 6);
+        g.setColor(BAND);
+        g.fillRect(x - 4, y - 1, 8, 1);
+        g.drawRect(x - 4, y - 3, 7, 5);
+        if (value > FLOTSAM) {
+            g.setColor(GOLD);
+            g.fillRect(x - 1, y - 2, 2, 1);
+        }
+    }
+}
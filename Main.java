@@ -1,15 +1,103 @@
 import javax.swing.*;
+import java.io.IOException;
+import java.nio.file.Paths;
 
 public class Main {
-    public static void main(String[] args) {
-        JFrame frame = new JFrame("Pixel Pirate Sim");
-        GamePanel panel = new GamePanel();
+    public static void main(String[] args) throws IOException, InterruptedException {
+        // Active rendering by default; --swing falls back to the old passive repaint path
+        boolean swing = false;
+        boolean dirty = false; // --dirty: Swing view that only repaints changed rectangles
+        boolean software = false; // --software: multi-threaded rasterizer for the active view
+        int fps = 60;
+        int servePort = -1; // --serve=PORT: headless authoritative sim streaming to spectators
+        String connect = null; // --connect=HOST:PORT: thin spectator for a --serve instance
+        int shards = 0; // --shards=N: headless ocean split across N worker processes
+        String statsDir = null; // --stats=DIR: record per-faction battle stats there, one row a second
+        int worldWidth = GamePanel.WIDTH, worldHeight = GamePanel.HEIGHT;
+        int swells = 4, oceanVariants = 4; // --swells=N per 256px ocean tile, --ocean-variants=N tile layouts
+        for (String arg : args) {
+            if (arg.equals("--swing")) swing = true;
+            else if (arg.equals("--dirty")) swing = dirty = true;
+            else if (arg.equals("--software")) software = true;
+            else if (arg.startsWith("--fps=")) fps = Integer.parseInt(arg.substring(6));
+            else if (arg.startsWith("--serve=")) servePort = Integer.parseInt(arg.substring(8));
+            else if (arg.startsWith("--connect=")) connect = arg.substring(10);
+            else if (arg.startsWith("--shards=")) shards = Integer.parseInt(arg.substring(9));
+            else if (arg.startsWith("--stats=")) statsDir = arg.substring(8);
+            else if (arg.startsWith("--ships=")) ShipTypes.useFile(Paths.get(arg.substring(8))); // class table, default ships.txt
+            else if (arg.startsWith("--swells=")) swells = Integer.parseInt(arg.substring(9));
+            else if (arg.startsWith("--ocean-variants=")) oceanVariants = Integer.parseInt(arg.substring(17));
+            else if (arg.startsWith("--world=")) { // e.g. --world=18000x10000
+                String[] size = arg.substring(8).split("x");
+                worldWidth = Integer.parseInt(size[0]);
+                worldHeight = Integer.parseInt(size[1]);
+            }
+        }
+        OceanRenderer.setQuality(swells, oceanVariants);
+
+        if (connect != null) {
+            String[] hostPort = connect.split(":");
+            SnapshotClient client = SnapshotClient.connect(hostPort[0], Integer.parseInt(hostPort[1]));
+            JFrame frame = new JFrame("Pixel Pirate Sim - spectator");
+            frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+            frame.setContentPane(client);
+            frame.pack();
+            frame.setVisible(true);
+            client.start();
+            return;
+        }
+
+        if (shards > 0) {
+            ShardCoordinator.run(shards, worldWidth, worldHeight);
+            return;
+        }
 
+        World world = new World(worldWidth, worldHeight);
+        System.out.println(world.generationReport());
+        if (statsDir != null) BattleRecorder.start(world.stats(), Paths.get(statsDir), 1000);
+        if (servePort >= 0) {
+            serve(world, servePort);
+            return;
+        }
+
+        JFrame frame = new JFrame("Pixel Pirate Sim");
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        frame.setContentPane(panel);
-        frame.pack();
-        frame.setVisible(true);
+        if (swing) {
+            GamePanel panel = new GamePanel(world, dirty);
+            frame.setContentPane(panel);
+            frame.pack();
+            frame.setVisible(true);
+            panel.startGame();
+        } else {
+            GameCanvas canvas = new GameCanvas(world, fps, software);
+            frame.add(canvas);
+            frame.pack();
+            frame.setVisible(true);
+            canvas.startGame();
+        }
+    }
 
-        panel.startGame();
+    // Server mode: same fixed 16ms tick as the views, no window, snapshots after every tick
+    private static void serve(World world, int port) throws IOException {
+        try (SnapshotServer server = new SnapshotServer(port)) {
+            System.out.println("Serving snapshots on 127.0.0.1:" + port);
+            long next = System.nanoTime();
+            while (true) {
+                world.update();
+                server.publish(world);
+                if (world.tick() % 300 == 0) System.out.println("tick " + world.tick() + ": " + server.stats());
+                next += 16_000_000L;
+                long sleep = next - System.nanoTime();
+                if (sleep > 0) {
+                    try {
+                        Thread.sleep(sleep / 1_000_000L, (int) (sleep % 1_000_000L));
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                } else if (sleep < -1_000_000_000L) {
+                    next = System.nanoTime(); // fell way behind; don't try to catch up a second of ticks
+                }
+            }
+        }
     }
 }
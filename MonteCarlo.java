@@ -0,0 +1,179 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Batch runner for balance tuning: plays many independent seeded matches headless, one
+// World per match, spread over every core, and prints who won how often.
+//
+//   java MonteCarlo [--matches=1000] [--ticks=36000] [--seed=1] [--ships=5]
+//                   [--world=1800x1000] [--threads=N] [--out=matches.csv] [--types=ships.txt]
+//
+// Match i uses seed + i, so any single match can be replayed on its own. Worlds share
+// no mutable state: every random choice comes from the world's own Random, the
+// captains plan a full cycle per tick instead of by the clock, and the ship classes
+// are read once up front (a frozen ShipTypes), so a seed gives the same match on any
+// machine even if the file is edited mid-batch. A match ends at the tick limit, or early once only one
+// faction has ships afloat; otherwise the faction with the most kills (then the fewest
+// losses) wins.
+public class MonteCarlo {
+    private static final int DECIDED_CHECK = 60; // ticks between "is anyone left?" checks
+
+    // What one match came to
+    static final class Outcome {
+        final long seed;
+        Faction winner; // null = draw
+        long ticks;
+        final long[] kills = new long[BattleStats.FACTIONS.length];
+        final long[] losses = new long[BattleStats.FACTIONS.length];
+
+        Outcome(long seed) {
+            this.seed = seed;
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+        int matches = 1000;
+        long ticks = 36_000; // ten minutes of game time
+        long seed = 1;
+        int ships = 5;
+        int width = GamePanel.WIDTH, height = GamePanel.HEIGHT;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String out = null;
+        Path typesFile = Paths.get("ships.txt");
+        for (String arg : args) {
+            if (arg.startsWith("--matches=")) matches = Integer.parseInt(arg.substring(10));
+            else if (arg.startsWith("--ticks=")) ticks = Long.parseLong(arg.substring(8));
+            else if (arg.startsWith("--seed=")) seed = Long.parseLong(arg.substring(7));
+            else if (arg.startsWith("--ships=")) ships = Integer.parseInt(arg.substring(8));
+            else if (arg.startsWith("--threads=")) threads = Integer.parseInt(arg.substring(10));
+            else if (arg.startsWith("--out=")) out = arg.substring(6);
+            else if (arg.startsWith("--types=")) typesFile = Paths.get(arg.substring(8));
+            else if (arg.startsWith("--world=")) {
+                String[] size = arg.substring(8).split("x");
+                width = Integer.parseInt(size[0]);
+                height = Integer.parseInt(size[1]);
+            }
+        }
+
+        System.out.printf("%d matches of up to %d ticks on %dx%d, %d ships per faction, %d threads%n",
+                matches, ticks, width, height, ships, threads);
+        ShipTypes types = ShipTypes.frozen(typesFile);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        List<Future<Outcome>> futures = new ArrayList<>(matches);
+        for (int i = 0; i < matches; i++) {
+            long matchSeed = seed + i;
+            int w = width, h = height, s = ships;
+            long limit = ticks;
+            futures.add(pool.submit(() -> play(matchSeed, w, h, s, limit, types)));
+        }
+        List<Outcome> outcomes = new ArrayList<>(matches);
+        for (Future<Outcome> f : futures) outcomes.add(f.get());
+        pool.shutdown();
+        long nanos = System.nanoTime() - start;
+
+        report(outcomes, nanos);
+        if (out != null) writeCsv(outcomes, out);
+    }
+
+    static Outcome play(long seed, int width, int height, int shipsPerFaction, long tickLimit, ShipTypes types)
+            throws IOException {
+        Outcome outcome = new Outcome(seed);
+        try (World world = new World(width, height, World.defaultIslandCount(width, height), seed, shipsPerFaction, types)) {
+            world.setPlannerBudget(0);
+            world.setEffects(false);
+            Faction survivor = null;
+            while (outcome.ticks < tickLimit) {
+                world.update();
+                outcome.ticks++;
+                if (outcome.ticks % DECIDED_CHECK == 0 && (survivor = lastAfloat(world)) != null) break;
+            }
+            BattleStats stats = world.stats();
+            for (Faction f : BattleStats.FACTIONS) {
+                outcome.kills[f.ordinal()] = stats.total(BattleStats.Metric.KILLS, f);
+                outcome.losses[f.ordinal()] = stats.total(BattleStats.Metric.LOSSES, f);
+            }
+            outcome.winner = survivor != null ? survivor : bestRecord(outcome);
+        }
+        return outcome;
+    }
+
+    // The only faction with ships left, or null while several still sail
+    private static Faction lastAfloat(World world) {
+        List<Ship> ships = world.ships();
+        Faction only = null;
+        for (int i = 0; i < ships.size(); i++) {
+            Faction f = ships.get(i).faction;
+            if (only == null) only = f;
+            else if (only != f) return null;
+        }
+        return only;
+    }
+
+    private static Faction bestRecord(Outcome o) {
+        Faction best = null;
+        boolean tied = false;
+        for (Faction f : BattleStats.FACTIONS) {
+            int i = f.ordinal();
+            if (best == null || o.kills[i] > o.kills[best.ordinal()]
+                    || o.kills[i] == o.kills[best.ordinal()] && o.losses[i] < o.losses[best.ordinal()]) {
+                best = f;
+                tied = false;
+            } else if (o.kills[i] == o.kills[best.ordinal()] && o.losses[i] == o.losses[best.ordinal()]) {
+                tied = true;
+            }
+        }
+        return tied ? null : best;
+    }
+
+    private static void report(List<Outcome> outcomes, long nanos) {
+        int factions = BattleStats.FACTIONS.length;
+        int[] wins = new int[factions];
+        long[] kills = new long[factions], losses = new long[factions];
+        int draws = 0;
+        long totalTicks = 0;
+        for (Outcome o : outcomes) {
+            if (o.winner == null) draws++;
+            else wins[o.winner.ordinal()]++;
+            totalTicks += o.ticks;
+            for (int i = 0; i < factions; i++) {
+                kills[i] += o.kills[i];
+                losses[i] += o.losses[i];
+            }
+        }
+        int n = outcomes.size();
+        System.out.printf("%-8s %6s %7s %11s %11s%n", "faction", "wins", "win%", "kills/match", "losses/match");
+        for (Faction f : BattleStats.FACTIONS) {
+            int i = f.ordinal();
+            System.out.printf("%-8s %6d %6.1f%% %11.1f %11.1f%n", f, wins[i], 100.0 * wins[i] / n,
+                    (double) kills[i] / n, (double) losses[i] / n);
+        }
+        System.out.printf("draws %d, mean duration %.0f ticks%n", draws, (double) totalTicks / n);
+        System.out.printf("%.1f s wall, %.0f ticks/s total, %.0f matches/s%n",
+                nanos / 1e9, totalTicks / (nanos / 1e9), n / (nanos / 1e9));
+    }
+
+    private static void writeCsv(List<Outcome> outcomes, String path) throws IOException {
+        try (PrintWriter w = new PrintWriter(Files.newBufferedWriter(Paths.get(path)))) {
+            StringBuilder header = new StringBuilder("seed,winner,ticks");
+            for (Faction f : BattleStats.FACTIONS) header.append(',').append(f).append("_kills");
+            for (Faction f : BattleStats.FACTIONS) header.append(',').append(f).append("_losses");
+            w.println(header);
+            for (Outcome o : outcomes) {
+                StringBuilder row = new StringBuilder();
+                row.append(o.seed).append(',').append(o.winner == null ? "" : o.winner).append(',').append(o.ticks);
+                for (long k : o.kills) row.append(',').append(k);
+                for (long l : o.losses) row.append(',').append(l);
+                w.println(row);
+            }
+        }
+    }
+}
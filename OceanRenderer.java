@@ -0,0 +1,112 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+// Pre-baked animated ocean. A looping set of tile frames (base blue plus fading swells)
+// is rendered once up front; each frame the background is just the current tile blitted
+// across the visible area, so swell density no longer costs anything per frame.
+// There are a few tile variants with their own swell layouts and timing, picked per tile
+// position by a hash, so the ocean doesn't show a 256px grid of identical tiles.
+// Everything comes from the seed, so a given seed always bakes the same ocean.
+// Both knobs only cost baking time and memory, never frame time: swells per tile, and
+// the variant count at 8MB of frames each (--swells= and --ocean-variants=, see Main).
+public class OceanRenderer {
+    public static final int TILE = 256;
+    static final int FRAMES = 32;         // frames in one animation loop
+    static final int TICKS_PER_FRAME = 4; // loop length = 128 ticks, about two seconds
+    static final int MAX_VARIANTS = 16;
+    static final Color OCEAN = new Color(0, 70, 180);
+
+    // What worlds bake with; set from the command line before anything renders
+    private static volatile int swellsSetting = 4, variantsSetting = 4; // 4 swells ~ the old 100 on 1800x1000
+
+    private final BufferedImage[][] frames;
+    private final int variantShift; // picks the top log2(variants) bits of a tile hash
+
+    static void setQuality(int swellsPerTile, int variants) {
+        check(swellsPerTile, variants);
+        swellsSetting = swellsPerTile;
+        variantsSetting = variants;
+    }
+
+    // An ocean at the configured quality
+    static OceanRenderer configured(long seed) {
+        return new OceanRenderer(swellsSetting, variantsSetting, seed);
+    }
+
+    private static void check(int swellsPerTile, int variants) {
+        if (swellsPerTile < 0) throw new IllegalArgumentException("swells per tile must be >= 0: " + swellsPerTile);
+        if (variants < 1 || variants > MAX_VARIANTS || Integer.bitCount(variants) != 1) {
+            throw new IllegalArgumentException("ocean variants must be a power of two up to " + MAX_VARIANTS + ": " + variants);
+        }
+    }
+
+    public OceanRenderer(int swellsPerTile, int variants, long seed) {
+        check(swellsPerTile, variants);
+        frames = new BufferedImage[variants][FRAMES];
+        variantShift = 31 - Integer.numberOfTrailingZeros(variants);
+        Random rand = new Random(seed);
+        for (int v = 0; v < variants; v++) {
+            // Swells sit wholly inside their tile: a neighbour is usually another variant,
+            // so one straddling an edge would be cut off at the seam instead of wrapping
+            Swell[] swells = new Swell[swellsPerTile];
+            int[] phase = new int[swellsPerTile];
+            for (int i = 0; i < swellsPerTile; i++) {
+                swells[i] = new Swell(TILE, TILE, rand);
+                swells[i].maxLife = FRAMES; // one fade in/out per loop so the tiles cycle seamlessly
+                phase[i] = rand.nextInt(FRAMES);
+            }
+
+            for (int f = 0; f < FRAMES; f++) {
+                BufferedImage img = new BufferedImage(TILE, TILE, BufferedImage.TYPE_INT_RGB);
+                Graphics2D g2 = img.createGraphics();
+                g2.setColor(OCEAN);
+                g2.fillRect(0, 0, TILE, TILE);
+                for (int i = 0; i < swellsPerTile; i++) {
+                    Swell s = swells[i];
+                    float alpha = s.getAlpha((f + phase[i]) % FRAMES);
+                    if (alpha <= 0) continue;
+                    g2.setColor(new Color(120, 180, 230, (int)(alpha * 255)));
+                    g2.fillRect(s.x, s.y, s.width, s.height);
+                }
+                g2.dispose();
+                frames[v][f] = img;
+            }
+        }
+    }
+
+    public BufferedImage frame(long tick, int variant) {
+        return frames[variant][(int) ((tick / TICKS_PER_FRAME) % FRAMES)];
+    }
+
+    // Which variant the tile at tile coordinates (tileX, tileY) shows. Split in two halves
+    // so a rasterizer can hash its columns and rows once and combine them per pixel.
+    static int hashX(int tileX) {
+        return tileX * 0x9E3779B9;
+    }
+
+    static int hashY(int tileY) {
+        return tileY * 0x85EBCA6B;
+    }
+
+    // Two shifts because a single >>> 32 would be a no-op with one variant
+    int variant(int hashX, int hashY) {
+        return ((hashX ^ hashY) >>> 1) >>> variantShift;
+    }
+
+    int variants() {
+        return frames.length;
+    }
+
+    // Tiles the current frame over the given world-space area
+    public void draw(Graphics g, long tick, int x, int y, int w, int h) {
+        int startX = Math.floorDiv(x, TILE) * TILE;
+        int startY = Math.floorDiv(y, TILE) * TILE;
+        for (int ty = startY; ty < y + h; ty += TILE) {
+            int hy = hashY(Math.floorDiv(ty, TILE));
+            for (int tx = startX; tx < x + w; tx += TILE) {
+                g.drawImage(frame(tick, variant(hashX(Math.floorDiv(tx, TILE)), hy)), tx, ty, null);
+            }
+        }
+    }
+}
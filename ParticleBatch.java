@@ -0,0 +1,102 @@
+// Structure-of-arrays particle store for short-lived effects (explosion debris and friends).
+// One step() moves every particle: position += velocity, velocity.y += gravity, life -= 1,
+// then dead particles are swap-removed. The arithmetic runs through a Kernel that uses
+// the jdk.incubator.vector API when the module is present and the optional kernel in
+// simd/ was compiled (see VectorKinematics), and a plain loop otherwise.
+public class ParticleBatch {
+
+    interface Kernel {
+        void step(float[] x, float[] y, float[] vx, float[] vy, float[] life, float gravity, int n);
+    }
+
+    static final Kernel SCALAR = ParticleBatch::scalarStep;
+    static final Kernel KERNEL = loadKernel();
+
+    float[] x, y, vx, vy, life;
+    int size = 0;
+    private final float gravity;
+
+    public ParticleBatch(int capacity, float gravity) {
+        this.gravity = gravity;
+        x = new float[capacity];
+        y = new float[capacity];
+        vx = new float[capacity];
+        vy = new float[capacity];
+        life = new float[capacity];
+    }
+
+    public void add(float px, float py, float dx, float dy, float ticks) {
+        if (size == x.length) grow();
+        x[size] = px;
+        y[size] = py;
+        vx[size] = dx;
+        vy[size] = dy;
+        life[size] = ticks;
+        size++;
+    }
+
+    public void step() {
+        step(KERNEL);
+    }
+
+    void step(Kernel kernel) {
+        kernel.step(x, y, vx, vy, life, gravity, size);
+        // Compact: move the last live particle into each dead slot
+        for (int i = 0; i < size; ) {
+            if (life[i] > 0) {
+                i++;
+                continue;
+            }
+            int last = --size;
+            x[i] = x[last];
+            y[i] = y[last];
+            vx[i] = vx[last];
+            vy[i] = vy[last];
+            life[i] = life[last];
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    private void grow() {
+        int cap = Math.max(16, x.length * 2);
+        x = java.util.Arrays.copyOf(x, cap);
+        y = java.util.Arrays.copyOf(y, cap);
+        vx = java.util.Arrays.copyOf(vx, cap);
+        vy = java.util.Arrays.copyOf(vy, cap);
+        life = java.util.Arrays.copyOf(life, cap);
+    }
+
+    // Scalar kernel, also used by the vector kernel for the tail that doesn't fill a lane
+    static void scalarStep(float[] x, float[] y, float[] vx, float[] vy, float[] life, float gravity, int from, int n) {
+        for (int i = from; i < n; i++) {
+            x[i] += vx[i];
+            y[i] += vy[i];
+            vy[i] += gravity;
+            life[i] -= 1f;
+        }
+    }
+
+    private static void scalarStep(float[] x, float[] y, float[] vx, float[] vy, float[] life, float gravity, int n) {
+        scalarStep(x, y, vx, vy, life, gravity, 0, n);
+    }
+
+    // Only touch VectorKinematics when the incubator module is actually resolved,
+    // otherwise loading it would fail with a NoClassDefFoundError. It may also not have
+    // been compiled at all, which lands in the catch like any other failure to load.
+    private static Kernel loadKernel() {
+        if (Boolean.getBoolean("pirates.scalar")) return SCALAR;
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) return SCALAR;
+        try {
+            return (Kernel) Class.forName("VectorKinematics").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return SCALAR;
+        }
+    }
+}
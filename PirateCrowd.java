@@ -0,0 +1,205 @@
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+// Every pirate in the world, stored as one crew per island in parallel int arrays.
+// A crew only ever walks its own island, so the update is a flat loop per crew with
+// the island's centre and squared walk radius hoisted out: no faction matching, no
+// sqrt, no per-pirate objects or Randoms. Tens of thousands of pirates are a few
+// hundred microseconds a tick.
+public class PirateCrowd {
+    private static final int EDGE_MARGIN = 6;  // keeps pirates away from the shoreline
+    private static final int SPAWN_MARGIN = 10;
+    private static final Color BODY = new Color(60, 40, 20);
+
+    // Rounded unit steps for 12 evenly spaced headings, so picking one at random gives
+    // the same 8-way distribution as rounding cos/sin of a uniform angle
+    private static final int[] DIR_X = new int[12], DIR_Y = new int[12];
+    static {
+        for (int i = 0; i < 12; i++) {
+            double angle = Math.toRadians(15 + 30 * i);
+            DIR_X[i] = (int) Math.round(Math.cos(angle));
+            DIR_Y[i] = (int) Math.round(Math.sin(angle));
+        }
+    }
+
+    public static final class Crew {
+        final Island island;
+        final int index;
+        Color color; // the island owner's; see recolor()
+        int[] x, y, dx, dy, step;
+        int count;
+
+        private Crew(Island island, int index) {
+            this.island = island;
+            this.index = index;
+            this.color = colorOf(island.faction);
+            allocate(8);
+        }
+
+        private void allocate(int capacity) {
+            x = new int[capacity];
+            y = new int[capacity];
+            dx = new int[capacity];
+            dy = new int[capacity];
+            step = new int[capacity];
+        }
+
+        private void grow() {
+            int capacity = x.length * 2;
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            dx = Arrays.copyOf(dx, capacity);
+            dy = Arrays.copyOf(dy, capacity);
+            step = Arrays.copyOf(step, capacity);
+        }
+
+        // Adds a pirate exactly as given (see RegionStore)
+        void add(int px, int py, int pdx, int pdy, int pstep) {
+            if (count == x.length) grow();
+            x[count] = px;
+            y[count] = py;
+            dx[count] = pdx;
+            dy[count] = pdy;
+            step[count] = pstep;
+            count++;
+        }
+
+        // Drops every pirate and gives the arrays back to the GC
+        void clear() {
+            count = 0;
+            allocate(8);
+        }
+
+        // The island changed hands (see Economy)
+        void recolor() {
+            color = colorOf(island.faction);
+        }
+
+        public Faction faction() {
+            return island.faction;
+        }
+
+        public int size() {
+            return count;
+        }
+    }
+
+    private final List<Crew> crews = new ArrayList<>();
+    private Crew[] byIsland = new Crew[16]; // by Island.index
+    private final Random rand;
+    private int total;
+
+    public PirateCrowd(Random rand) {
+        this.rand = rand;
+    }
+
+    // The crew living on an island, created on first use; O(1), so spawning a crew on
+    // every island while the world is built stays linear in the island count
+    public Crew crewOf(Island island) {
+        if (island.index >= byIsland.length) byIsland = Arrays.copyOf(byIsland, Math.max(island.index + 1, byIsland.length * 2));
+        Crew crew = byIsland[island.index];
+        if (crew == null) {
+            crew = new Crew(island, crews.size());
+            crews.add(crew);
+            byIsland[island.index] = crew;
+        }
+        return crew;
+    }
+
+    // Spawns count pirates somewhere on the island, each with a fresh heading
+    public void spawn(Island island, int count) {
+        Crew crew = crewOf(island);
+        int r = island.radius - SPAWN_MARGIN;
+        for (int i = 0; i < count; i++) {
+            int d = rand.nextInt(12);
+            crew.add(island.x + rand.nextInt(r * 2) - r, island.y + rand.nextInt(r * 2) - r,
+                    DIR_X[d], DIR_Y[d], 20 + rand.nextInt(40));
+        }
+        total += count;
+    }
+
+    public void update() {
+        int[] dirX = DIR_X, dirY = DIR_Y;
+        for (int c = 0; c < crews.size(); c++) {
+            Crew crew = crews.get(c);
+            int cx = crew.island.x, cy = crew.island.y;
+            int limit = crew.island.radius - EDGE_MARGIN;
+            int limitSq = limit * limit;
+            int[] x = crew.x, y = crew.y, dx = crew.dx, dy = crew.dy, step = crew.step;
+            for (int i = 0, n = crew.count; i < n; i++) {
+                if (step[i]-- <= 0) {
+                    int d = rand.nextInt(12);
+                    dx[i] = dirX[d];
+                    dy[i] = dirY[d];
+                    step[i] = 20 + rand.nextInt(40);
+                }
+                int nx = x[i] + dx[i];
+                int ny = y[i] + dy[i];
+                int ox = nx - cx, oy = ny - cy;
+                // Only move if still inside the island's radius
+                if (ox * ox + oy * oy < limitSq) {
+                    x[i] = nx;
+                    y[i] = ny;
+                } else {
+                    int d = rand.nextInt(12);
+                    dx[i] = dirX[d];
+                    dy[i] = dirY[d];
+                    step[i] = 20 + rand.nextInt(40);
+                }
+            }
+        }
+    }
+
+    List<Crew> crews() {
+        return crews;
+    }
+
+    // Total pirates currently simulated (paged-out crews don't count)
+    public int size() {
+        return total;
+    }
+
+    // For RegionStore: a crew is paged out or back in as a whole
+    void evict(Crew crew) {
+        total -= crew.count;
+        crew.clear();
+    }
+
+    void restored(int count) {
+        total += count;
+    }
+
+    // Draws every crew whose island touches the view; one colour change per crew per pass
+    public void draw(Graphics g, Rectangle view) {
+        for (Crew crew : crews) {
+            if (crew.count == 0 || !touches(crew.island, view)) continue;
+            int[] x = crew.x, y = crew.y;
+            g.setColor(crew.color);
+            for (int i = 0; i < crew.count; i++) g.fillOval(x[i] - 2, y[i] - 3, 4, 4); // much smaller head
+            g.setColor(BODY);
+            for (int i = 0; i < crew.count; i++) g.fillRect(x[i] - 1, y[i], 2, 4); // much smaller body
+        }
+    }
+
+    // Area a crew can draw into: its island plus the pirate art hanging over the walk radius
+    static boolean touches(Island island, Rectangle view) {
+        int r = island.radius;
+        return island.x + r >= view.x && island.x - r <= view.x + view.width
+            && island.y + r + 4 >= view.y && island.y - r - 4 <= view.y + view.height;
+    }
+
+    // A single pirate, for sprite baking
+    static void drawPirate(Graphics g, int x, int y, Color color) {
+        g.setColor(color);
+        g.fillOval(x - 2, y - 3, 4, 4);
+        g.setColor(BODY);
+        g.fillRect(x - 1, y, 2, 4);
+    }
+
+    static Color colorOf(Faction faction) {
+        return Ship.factionColor(faction);
+    }
+}
@@ -0,0 +1,111 @@
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+// Bridson's Poisson-disk sampling with a background grid.
+// Produces points that are never closer than minDist, packed about as densely as
+// random placement allows, in time linear in the number of points: each point only
+// checks the handful of grid cells around it instead of every point placed so far.
+public final class PoissonDisk {
+    private static final int ATTEMPTS = 30; // candidates tried around each active point
+
+    interface Domain {
+        boolean contains(double x, double y);
+    }
+
+    private PoissonDisk() {
+    }
+
+    // Points at least minDist apart inside [x0,x1) x [y0,y1), shuffled so any prefix is spread out
+    public static List<Point> sample(double x0, double y0, double x1, double y1, double minDist, Random rand) {
+        List<Point> points = sample(x0, y0, x1, y1, minDist, rand, (x, y) -> true);
+        Collections.shuffle(points, rand);
+        return points;
+    }
+
+    // Points at least minDist apart inside the disc of the given radius
+    public static List<Point> sampleDisc(double cx, double cy, double radius, double minDist, Random rand) {
+        double r2 = radius * radius;
+        List<Point> points = sample(cx - radius, cy - radius, cx + radius, cy + radius, minDist, rand,
+                (x, y) -> (x - cx) * (x - cx) + (y - cy) * (y - cy) < r2);
+        Collections.shuffle(points, rand);
+        return points;
+    }
+
+    static List<Point> sample(double x0, double y0, double x1, double y1, double minDist, Random rand, Domain domain) {
+        List<Point> out = new ArrayList<>();
+        double w = x1 - x0, h = y1 - y0;
+        if (w <= 0 || h <= 0) return out;
+
+        // Cell size minDist/sqrt(2) means at most one point per cell
+        double cell = minDist / Math.sqrt(2);
+        int cols = (int) Math.ceil(w / cell), rows = (int) Math.ceil(h / cell);
+        int[] grid = new int[cols * rows]; // index into xs/ys, -1 = empty
+        Arrays.fill(grid, -1);
+        double[] xs = new double[16], ys = new double[16];
+        int count = 0;
+        int[] active = new int[16];
+        int activeCount = 0;
+
+        // Seed: a few random tries to land inside the domain
+        for (int tries = 0; tries < ATTEMPTS && count == 0; tries++) {
+            double sx = x0 + rand.nextDouble() * w, sy = y0 + rand.nextDouble() * h;
+            if (!domain.contains(sx, sy)) continue;
+            xs[0] = sx;
+            ys[0] = sy;
+            grid[(int) ((sy - y0) / cell) * cols + (int) ((sx - x0) / cell)] = 0;
+            active[activeCount++] = 0;
+            count = 1;
+        }
+
+        double min2 = minDist * minDist;
+        while (activeCount > 0) {
+            int slot = rand.nextInt(activeCount);
+            int p = active[slot];
+            boolean placed = false;
+            for (int k = 0; k < ATTEMPTS; k++) {
+                // Uniform in the annulus [minDist, 2*minDist) around p
+                double angle = rand.nextDouble() * Math.PI * 2;
+                double dist = minDist * Math.sqrt(1 + 3 * rand.nextDouble());
+                double cx = xs[p] + Math.cos(angle) * dist, cy = ys[p] + Math.sin(angle) * dist;
+                if (cx < x0 || cy < y0 || cx >= x1 || cy >= y1 || !domain.contains(cx, cy)) continue;
+                int gx = (int) ((cx - x0) / cell), gy = (int) ((cy - y0) / cell);
+                if (tooClose(grid, cols, rows, gx, gy, xs, ys, cx, cy, min2)) continue;
+
+                if (count == xs.length) {
+                    xs = Arrays.copyOf(xs, count * 2);
+                    ys = Arrays.copyOf(ys, count * 2);
+                }
+                xs[count] = cx;
+                ys[count] = cy;
+                grid[gy * cols + gx] = count;
+                if (activeCount == active.length) active = Arrays.copyOf(active, activeCount * 2);
+                active[activeCount++] = count;
+                count++;
+                placed = true;
+                break;
+            }
+            if (!placed) active[slot] = active[--activeCount]; // p is surrounded, retire it
+        }
+
+        for (int i = 0; i < count; i++) out.add(new Point((int) xs[i], (int) ys[i]));
+        return out;
+    }
+
+    private static boolean tooClose(int[] grid, int cols, int rows, int gx, int gy,
+                                    double[] xs, double[] ys, double cx, double cy, double min2) {
+        // Anything within minDist is at most two cells away
+        for (int y = Math.max(0, gy - 2); y <= Math.min(rows - 1, gy + 2); y++) {
+            for (int x = Math.max(0, gx - 2); x <= Math.min(cols - 1, gx + 2); x++) {
+                int q = grid[y * cols + x];
+                if (q < 0) continue;
+                double dx = xs[q] - cx, dy = ys[q] - cy;
+                if (dx * dx + dy * dy < min2) return true;
+            }
+        }
+        return false;
+    }
+}
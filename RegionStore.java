@@ -0,0 +1,284 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+// Pages the loose entities of far-away regions out of the heap. This is not a chunked
+// ocean and doesn't let one outgrow the heap: it only parks the clutter no fleet can see.
+//
+// The world is cut into fixed-size square regions. Ones no ship is near have their
+// health drops, wrecks and pirate crews written to a memory-mapped region file and
+// dropped from the lists, with their expiry timers cancelled and the remaining ticks
+// saved, so they are frozen rather than coarsened. When a ship comes back within range
+// the region is read back and everything resumes where it stopped. (Nothing calls
+// Ship.destroy yet, so in practice there are no wrecks to page.)
+//
+// Everything else stays resident and sized by the map: islands, ships (which are what
+// decide "near"), LootField's crates and the per-world grids (influence, fog, spatial
+// buckets). Heap use still grows with the ocean's area.
+//
+// The region file is only created once a region first pages out, and is deleted when
+// the store is closed, so the many small worlds of a batch run mostly never touch disk.
+public class RegionStore implements AutoCloseable {
+    public static final int REGION = 1024;        // region edge in pixels
+    private static final int SLOT_BYTES = 64 * 1024; // on-disk record per region
+    private static final int SLOTS_PER_SEGMENT = 1024; // 64MB per mapping, so huge maps stay below the 2GB map limit
+    private static final int ACTIVATE_RADIUS = 1; // regions around a ship that must be resident
+    private static final int KEEP_RADIUS = 2;     // ...and how far it may sail before we page out
+
+    final int cols, rows;
+    private final boolean[] resident;
+    private final boolean[] near, keep;
+    // pageOut scratch, per region, allocated once
+    private final boolean[] leaving;
+    private final int[] dropCount, wreckCount, crewCount, crewBytes, cursor;
+    private FileChannel channel; // opened on the first page-out
+    private final MappedByteBuffer[] segments;
+    private int pagedOut = 0;
+
+    private final List<HealthDrop> healthDrops;
+    private final List<Ship.Shipwreck> wrecks;
+    private final PirateCrowd pirates;
+    private final TimingWheel timers;
+
+    public RegionStore(int worldWidth, int worldHeight, List<HealthDrop> healthDrops,
+                       List<Ship.Shipwreck> wrecks, PirateCrowd pirates, TimingWheel timers) {
+        this.cols = (worldWidth + REGION - 1) / REGION;
+        this.rows = (worldHeight + REGION - 1) / REGION;
+        this.healthDrops = healthDrops;
+        this.wrecks = wrecks;
+        this.pirates = pirates;
+        this.timers = timers;
+        int count = cols * rows;
+        resident = new boolean[count];
+        near = new boolean[count];
+        keep = new boolean[count];
+        leaving = new boolean[count];
+        dropCount = new int[count];
+        wreckCount = new int[count];
+        crewCount = new int[count];
+        crewBytes = new int[count];
+        cursor = new int[count];
+        Arrays.fill(resident, true); // everything starts on the heap
+        segments = new MappedByteBuffer[(count + SLOTS_PER_SEGMENT - 1) / SLOTS_PER_SEGMENT];
+    }
+
+    public int regionOf(int x, int y) {
+        int rx = Math.max(0, Math.min(cols - 1, Math.floorDiv(x, REGION)));
+        int ry = Math.max(0, Math.min(rows - 1, Math.floorDiv(y, REGION)));
+        return ry * cols + rx;
+    }
+
+    public boolean isResident(int x, int y) {
+        return resident[regionOf(x, y)];
+    }
+
+    public int pagedOutRegions() {
+        return pagedOut;
+    }
+
+    // Recomputes which regions fleets are near and streams regions in or out to match.
+    // O(ships + resident entities); meant to run every few dozen ticks, not every tick.
+    public void update(List<Ship> ships) {
+        Arrays.fill(near, false);
+        Arrays.fill(keep, false);
+        for (int i = 0; i < ships.size(); i++) {
+            Ship ship = ships.get(i);
+            int r = regionOf(ship.x, ship.y);
+            mark(near, r % cols, r / cols, ACTIVATE_RADIUS);
+            mark(keep, r % cols, r / cols, KEEP_RADIUS);
+        }
+
+        // Regions outside every ship's keep radius go to disk in one pass over the entity lists
+        boolean any = false;
+        for (int r = 0; r < resident.length; r++) {
+            if (resident[r] && !keep[r]) {
+                any = true;
+                break;
+            }
+        }
+        if (any) pageOut();
+
+        for (int r = 0; r < resident.length; r++) {
+            if (!resident[r] && near[r]) pageIn(r);
+        }
+    }
+
+    private void mark(boolean[] set, int cx, int cy, int radius) {
+        for (int y = Math.max(0, cy - radius); y <= Math.min(rows - 1, cy + radius); y++) {
+            for (int x = Math.max(0, cx - radius); x <= Math.min(cols - 1, cx + radius); x++) {
+                set[y * cols + x] = true;
+            }
+        }
+    }
+
+    // Record layout per slot: [drops][wrecks][crews], each a count followed by its entries.
+    // A crew belongs to the region its island's centre is in and is written as its index
+    // in the crowd, its size, then five ints per pirate.
+    // Counts are taken first, so every list is walked once and written straight into its
+    // slots, and the lists are compacted in place; a pass allocates nothing.
+    private void pageOut() {
+        Arrays.fill(dropCount, 0);
+        Arrays.fill(wreckCount, 0);
+        Arrays.fill(crewCount, 0);
+        Arrays.fill(crewBytes, 0);
+        for (int i = 0; i < healthDrops.size(); i++) {
+            HealthDrop d = healthDrops.get(i);
+            dropCount[regionOf(d.x, d.y)]++;
+        }
+        for (int i = 0; i < wrecks.size(); i++) {
+            Ship.Shipwreck w = wrecks.get(i);
+            wreckCount[regionOf(w.x, w.y)]++;
+        }
+        List<PirateCrowd.Crew> crews = pirates.crews();
+        for (int i = 0; i < crews.size(); i++) {
+            PirateCrowd.Crew crew = crews.get(i);
+            if (crew.count == 0) continue;
+            int r = regionOf(crew.island.x, crew.island.y);
+            crewCount[r]++;
+            crewBytes[r] += 8 + 20 * crew.count;
+        }
+
+        boolean any = false;
+        for (int r = 0; r < resident.length; r++) {
+            // If a region is too crowded to fit its slot, leave it resident rather than lose entities
+            leaving[r] = resident[r] && !keep[r]
+                    && 12 + 16L * dropCount[r] + 16L * wreckCount[r] + crewBytes[r] <= SLOT_BYTES;
+            if (!leaving[r]) continue;
+            any = true;
+            cursor[r] = slot(r).position();
+            slot(r).putInt(cursor[r], dropCount[r]);
+            cursor[r] += 4;
+        }
+        if (!any) return;
+
+        long now = timers.now();
+        int kept = 0;
+        for (int i = 0; i < healthDrops.size(); i++) {
+            HealthDrop drop = healthDrops.get(i);
+            int r = regionOf(drop.x, drop.y);
+            if (!leaving[r]) {
+                healthDrops.set(kept++, drop);
+                continue;
+            }
+            cursor[r] = put(r, cursor[r], drop.x, drop.y, (int) (drop.expiry.deadline() - now), drop.loot);
+            drop.expiry.cancel();
+        }
+        truncate(healthDrops, kept);
+
+        for (int r = 0; r < resident.length; r++) {
+            if (leaving[r]) cursor[r] = put(r, cursor[r], wreckCount[r]);
+        }
+        kept = 0;
+        for (int i = 0; i < wrecks.size(); i++) {
+            Ship.Shipwreck wreck = wrecks.get(i);
+            int r = regionOf(wreck.x, wreck.y);
+            if (!leaving[r]) {
+                wrecks.set(kept++, wreck);
+                continue;
+            }
+            cursor[r] = put(r, cursor[r], wreck.x, wreck.y, (int) (now - wreck.born), (int) (wreck.expiry.deadline() - now));
+            wreck.expiry.cancel();
+        }
+        truncate(wrecks, kept);
+
+        for (int r = 0; r < resident.length; r++) {
+            if (leaving[r]) cursor[r] = put(r, cursor[r], crewCount[r]);
+        }
+        for (int i = 0; i < crews.size(); i++) {
+            PirateCrowd.Crew crew = crews.get(i);
+            int r = regionOf(crew.island.x, crew.island.y);
+            if (crew.count == 0 || !leaving[r]) continue;
+            int at = put(r, cursor[r], crew.index, crew.count);
+            for (int p = 0; p < crew.count; p++) {
+                at = put(r, at, crew.x[p], crew.y[p], crew.dx[p], crew.dy[p]);
+                at = put(r, at, crew.step[p]);
+            }
+            cursor[r] = at;
+            pirates.evict(crew);
+        }
+
+        for (int r = 0; r < resident.length; r++) {
+            if (!leaving[r]) continue;
+            resident[r] = false;
+            pagedOut++;
+        }
+    }
+
+    // Absolute writes into region r's segment; return the position after the last int
+    private int put(int r, int at, int a) {
+        segments[r / SLOTS_PER_SEGMENT].putInt(at, a);
+        return at + 4;
+    }
+
+    private int put(int r, int at, int a, int b) {
+        return put(r, put(r, at, a), b);
+    }
+
+    private int put(int r, int at, int a, int b, int c, int d) {
+        return put(r, put(r, at, a, b), c, d);
+    }
+
+    // Drops everything from index size on, from the end so nothing shifts
+    private static <T> void truncate(List<T> list, int size) {
+        for (int i = list.size() - 1; i >= size; i--) list.remove(i);
+    }
+
+    private void pageIn(int r) {
+        MappedByteBuffer buf = slot(r);
+        int dropCount = buf.getInt();
+        for (int i = 0; i < dropCount; i++) {
+            HealthDrop drop = new HealthDrop(buf.getInt(), buf.getInt());
+            drop.expiry = timers.schedule(buf.getInt(), drop);
+            drop.loot = buf.getInt();
+            healthDrops.add(drop);
+        }
+        int wreckCount = buf.getInt();
+        for (int i = 0; i < wreckCount; i++) {
+            Ship.Shipwreck wreck = new Ship.Shipwreck(buf.getInt(), buf.getInt(), timers);
+            wreck.born = timers.now() - buf.getInt();
+            wreck.expiry = timers.schedule(buf.getInt(), wreck);
+            wrecks.add(wreck);
+        }
+        int crewCount = buf.getInt();
+        for (int i = 0; i < crewCount; i++) {
+            PirateCrowd.Crew crew = pirates.crews().get(buf.getInt());
+            int count = buf.getInt();
+            for (int j = 0; j < count; j++) {
+                crew.add(buf.getInt(), buf.getInt(), buf.getInt(), buf.getInt(), buf.getInt());
+            }
+            pirates.restored(count);
+        }
+        resident[r] = true;
+        pagedOut--;
+    }
+
+    // A buffer positioned at the start of region r's slot, mapping its segment on first use
+    private MappedByteBuffer slot(int r) {
+        int seg = r / SLOTS_PER_SEGMENT;
+        if (segments[seg] == null) {
+            try {
+                if (channel == null) {
+                    channel = FileChannel.open(Files.createTempFile("pirates-regions", ".dat"),
+                            StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+                }
+                segments[seg] = channel.map(FileChannel.MapMode.READ_WRITE,
+                        (long) seg * SLOTS_PER_SEGMENT * SLOT_BYTES, (long) SLOTS_PER_SEGMENT * SLOT_BYTES);
+            } catch (IOException e) {
+                throw new UncheckedIOException("could not map region segment " + seg, e);
+            }
+        }
+        MappedByteBuffer buf = segments[seg];
+        buf.clear().position((r % SLOTS_PER_SEGMENT) * SLOT_BYTES);
+        return buf;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) channel.close(); // DELETE_ON_CLOSE removes the file
+    }
+}
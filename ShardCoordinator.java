@@ -0,0 +1,62 @@
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Launches a sharded ocean: lays out the islands, creates the shared exchange file and
+// starts one ShardWorker JVM per strip, each with its own heap and cores. Workers get
+// this JVM's options (-Xmx, --add-modules, ...) and the ship class file we were given. Then it just
+// watches the control blocks and prints a status line a second until interrupted.
+public class ShardCoordinator {
+
+    public static void run(int shards, int width, int height) throws IOException, InterruptedException {
+        List<Island> islands = World.generateIslands(width, height, World.defaultIslandCount(width, height), new Random());
+        File path = File.createTempFile("pirates-shards", ".dat");
+        path.deleteOnExit();
+
+        try (ShardExchange exchange = ShardExchange.create(path, shards, width, height, islands)) {
+            String java = ProcessHandle.current().info().command().orElse("java");
+            List<Process> workers = new ArrayList<>();
+            for (int s = 0; s < shards; s++) {
+                List<String> command = new ArrayList<>();
+                command.add(java);
+                for (String option : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+                    // A debugger agent would try to listen on our port in every worker
+                    if (!option.startsWith("-agentlib:jdwp")) command.add(option);
+                }
+                command.addAll(List.of("-cp", System.getProperty("java.class.path"), "ShardWorker",
+                        path.getPath(), String.valueOf(s), ShipTypes.shared().file().toString()));
+                workers.add(new ProcessBuilder(command).inheritIO().start());
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                exchange.stop();
+                for (Process p : workers) p.destroy();
+            }));
+            System.out.printf("Sharded %dx%d ocean with %d islands across %d worker processes%n",
+                    width, height, islands.size(), shards);
+
+            while (workers.stream().allMatch(Process::isAlive)) {
+                Thread.sleep(1000);
+                System.out.println(status(exchange));
+            }
+            exchange.stop();
+            System.out.println("A shard worker exited; stopping the others");
+            for (Process p : workers) p.destroy();
+        }
+    }
+
+    private static String status(ShardExchange exchange) {
+        StringBuilder line = new StringBuilder();
+        long ships = 0, tick = Long.MAX_VALUE;
+        for (int s = 0; s < exchange.shards; s++) {
+            ships += exchange.control(s, ShardExchange.SHIPS);
+            tick = Math.min(tick, exchange.control(s, ShardExchange.TICK));
+            line.append(String.format(" | #%d: %d ships, %d ghosts, %d out/%d in", s,
+                    exchange.control(s, ShardExchange.SHIPS), exchange.control(s, ShardExchange.GHOSTS),
+                    exchange.control(s, ShardExchange.HANDOFFS_OUT), exchange.control(s, ShardExchange.HANDOFFS_IN)));
+        }
+        return "tick " + tick + ", " + ships + " ships" + line;
+    }
+}
@@ -0,0 +1,154 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+// Shared memory-mapped file the shard processes talk through (see ShardWorker).
+//
+// Layout: a header with the world size and island layout, then one control block per
+// shard (its published tick and some stats), then two mailboxes per shard. A shard
+// writes everything the others need for tick t into mailbox t%2, then publishes t.
+// Every shard waits for all others to publish t before reading their t mailboxes, so
+// no shard ever runs more than one tick ahead of another and mailbox t%2 isn't reused
+// until everyone has finished reading it.
+public class ShardExchange implements AutoCloseable {
+    static final int MAILBOX = 1 << 20; // bytes per shard per tick parity
+    private static final int MAGIC = 0x50495241; // "PIRA"
+    private static final int ISLANDS_AT = 64;
+    private static final int CONTROL_BYTES = 64;
+    private static final int STOP_AT = 20;
+
+    // Control block fields, as byte offsets inside a shard's block
+    static final int TICK = 0, SHIPS = 8, HANDOFFS_OUT = 16, HANDOFFS_IN = 24, GHOSTS = 32;
+
+    // Volatile access to longs inside the mapped file; the mapping is shared between
+    // processes, so these are the only fences we have
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    final int shards, width, height;
+    private final RandomAccessFile file;
+    private final MappedByteBuffer map;
+    private final int controlAt, mailAt;
+
+    private ShardExchange(RandomAccessFile file, MappedByteBuffer map) {
+        this.file = file;
+        this.map = map;
+        this.shards = map.getInt(4);
+        this.width = map.getInt(8);
+        this.height = map.getInt(12);
+        int islands = map.getInt(16);
+        this.controlAt = align(ISLANDS_AT + islands * 16);
+        this.mailAt = align(controlAt + shards * CONTROL_BYTES);
+    }
+
+    private static int align(int offset) {
+        return (offset + 4095) & ~4095;
+    }
+
+    // Coordinator side: lays out a fresh exchange file
+    static ShardExchange create(File path, int shards, int width, int height, List<Island> islands) throws IOException {
+        int controlAt = align(ISLANDS_AT + islands.size() * 16);
+        int mailAt = align(controlAt + shards * CONTROL_BYTES);
+        long size = mailAt + (long) shards * 2 * MAILBOX;
+        RandomAccessFile file = new RandomAccessFile(path, "rw");
+        file.setLength(0);
+        file.setLength(size);
+        MappedByteBuffer map = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        map.putInt(4, shards).putInt(8, width).putInt(12, height).putInt(16, islands.size());
+        for (int i = 0; i < islands.size(); i++) {
+            Island island = islands.get(i);
+            int at = ISLANDS_AT + i * 16;
+            map.putInt(at, island.x).putInt(at + 4, island.y).putInt(at + 8, island.radius)
+               .putInt(at + 12, island.faction.ordinal());
+        }
+        ShardExchange exchange = new ShardExchange(file, map);
+        for (int s = 0; s < shards; s++) exchange.setControl(s, TICK, -1);
+        INT.setVolatile(map, 0, MAGIC); // written last: workers may attach once they see it
+        return exchange;
+    }
+
+    // Worker side
+    static ShardExchange open(File path) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(path, "rw");
+        MappedByteBuffer map = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, file.length());
+        if ((int) INT.getVolatile(map, 0) != MAGIC) throw new IOException("not a shard exchange file: " + path);
+        return new ShardExchange(file, map);
+    }
+
+    // Islands come from the coordinator so every shard navigates the same ocean.
+    // Only position, size and owner are shared; decorations are rolled per process.
+    List<Island> islands() {
+        Faction[] factions = Faction.values();
+        int count = map.getInt(16);
+        List<Island> islands = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int at = ISLANDS_AT + i * 16;
+            islands.add(new Island(map.getInt(at), map.getInt(at + 4), map.getInt(at + 8), factions[map.getInt(at + 12)]));
+        }
+        return islands;
+    }
+
+    // Strip of the ocean shard s owns: [x0(s), x0(s + 1))
+    int x0(int shard) {
+        return (int) ((long) width * shard / shards);
+    }
+
+    int ownerOf(int x) {
+        int s = (int) ((long) Math.max(0, Math.min(width - 1, x)) * shards / width);
+        while (s > 0 && x < x0(s)) s--;
+        while (s < shards - 1 && x >= x0(s + 1)) s++;
+        return s;
+    }
+
+    // A buffer over shard s's mailbox for tick t, positioned at its start
+    ByteBuffer mailbox(int shard, long tick) {
+        int at = mailAt + (shard * 2 + (int) (tick & 1)) * MAILBOX;
+        return map.duplicate().position(at).limit(at + MAILBOX).slice();
+    }
+
+    void publish(int shard, long tick) {
+        setControl(shard, TICK, tick);
+    }
+
+    // Spins briefly, then parks, until every shard has published tick; false if stopped
+    boolean awaitAll(long tick) {
+        for (int s = 0; s < shards; s++) {
+            int spins = 0;
+            while (control(s, TICK) < tick) {
+                if (stopped()) return false;
+                if (++spins < 1000) Thread.onSpinWait();
+                else java.util.concurrent.locks.LockSupport.parkNanos(50_000);
+            }
+        }
+        return true;
+    }
+
+    long control(int shard, int field) {
+        return (long) LONG.getVolatile(map, controlAt + shard * CONTROL_BYTES + field);
+    }
+
+    void setControl(int shard, int field, long value) {
+        LONG.setVolatile(map, controlAt + shard * CONTROL_BYTES + field, value);
+    }
+
+    void stop() {
+        INT.setVolatile(map, STOP_AT, 1);
+    }
+
+    boolean stopped() {
+        return (int) INT.getVolatile(map, STOP_AT) != 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+}
@@ -0,0 +1,274 @@
+import java.awt.Point;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// One process of a sharded ocean. The ocean is cut into vertical strips, one per worker;
+// each worker runs an ordinary World over the whole map but only simulates what sails in
+// its own strip. Workers step in lockstep through a ShardExchange. Every tick, each one
+// publishes, in a fixed order:
+//   - handoffs: ships, in-flight cannonballs and rowboats that left its strip, with their state
+//   - ghosts: its ships within GHOST_MARGIN of a border, as targets for the neighbours
+//   - damage: hits that landed on other shards' ghosts, to be applied by the owner
+//   - claims: islands in its strip that changed hands or levelled up, so every shard agrees
+//     on owners and levels
+// Then it reads everyone else's records in shard order and steps. The owner of anything
+// is just whoever's strip its x falls in, so handoff is deterministic and every entity is
+// adopted by exactly one shard.
+// Ghosts sit in World's target list, so Ship.update picks them like any other enemy,
+// and a Cannonball hitting one decrements its health as usual. We report the difference.
+// Health drops and wrecks stay in the shard where they appeared, and each shard keeps
+// its own loot ledgers; only island owners and levels are shared.
+public class ShardWorker {
+    static final int GHOST_MARGIN = 320; // ShipTypes.MAX_SIGHT plus a 150px cannonball flight, rounded up
+    private static final byte SHIP = 1, BALL = 2, BOAT = 3, GHOST = 4, DAMAGE = 5, CLAIM = 6;
+    private static final long TICK_NANOS = 16_000_000L;
+
+    // Another shard's ship as we last saw it; reported is the health it had then
+    private static final class Ghost {
+        final Ship ship;
+        int reported;
+        long seen;
+
+        Ghost(Ship ship) {
+            this.ship = ship;
+        }
+    }
+
+    private final ShardExchange exchange;
+    private final int shard;
+    private final int x0, x1;
+    private final World world;
+    private final List<Island> islands;
+    private final Map<Integer, Ghost> ghosts = new HashMap<>();
+    private final List<Ship> leaving = new ArrayList<>();
+    private int nextUid = 0;
+    private long handoffsOut, handoffsIn;
+
+    ShardWorker(ShardExchange exchange, int shard) {
+        this.exchange = exchange;
+        this.shard = shard;
+        this.x0 = exchange.x0(shard);
+        this.x1 = exchange.x0(shard + 1);
+        this.islands = exchange.islands();
+        this.world = new World(exchange.width, exchange.height, islands, x0, x1);
+    }
+
+    // java ShardWorker <exchange file> <shard index> [ship class file]; started by ShardCoordinator
+    public static void main(String[] args) throws IOException {
+        if (args.length > 2) ShipTypes.useFile(Paths.get(args[2])); // the coordinator's --ships=FILE
+        try (ShardExchange exchange = ShardExchange.open(new File(args[0]))) {
+            new ShardWorker(exchange, Integer.parseInt(args[1])).run();
+        }
+    }
+
+    void run() {
+        long next = System.nanoTime();
+        for (long t = 0; !exchange.stopped(); t++) {
+            publish(t);
+            if (!exchange.awaitAll(t)) break;
+            for (int s = 0; s < exchange.shards; s++) {
+                if (s != shard) receive(exchange.mailbox(s, t), t);
+            }
+            pruneGhosts(t);
+            world.update();
+
+            exchange.setControl(shard, ShardExchange.SHIPS, world.ships().size());
+            exchange.setControl(shard, ShardExchange.GHOSTS, world.ghosts().size());
+            exchange.setControl(shard, ShardExchange.HANDOFFS_OUT, handoffsOut);
+            exchange.setControl(shard, ShardExchange.HANDOFFS_IN, handoffsIn);
+            // Don't outlive the coordinator if it was killed without a chance to say stop
+            if ((t & 255) == 0 && !ProcessHandle.current().parent().map(ProcessHandle::isAlive).orElse(false)) break;
+
+            next += TICK_NANOS;
+            long sleep = next - System.nanoTime();
+            if (sleep > 0) java.util.concurrent.locks.LockSupport.parkNanos(sleep);
+            else if (sleep < -1_000_000_000L) next = System.nanoTime();
+        }
+    }
+
+    private boolean owns(int x) {
+        return exchange.ownerOf(x) == shard;
+    }
+
+    private int uid(Ship ship) {
+        if (ship.uid == 0) ship.uid = ++nextUid * exchange.shards + shard;
+        return ship.uid;
+    }
+
+    private void publish(long t) {
+        ByteBuffer out = exchange.mailbox(shard, t);
+        out.putInt(0); // record count, patched at the end
+        int records = 0;
+
+        leaving.clear();
+        List<Ship> ships = world.ships();
+        for (int i = 0; i < ships.size(); i++) {
+            Ship ship = ships.get(i);
+            uid(ship);
+            if (!owns(ship.x)) {
+                out.put(SHIP);
+                ship.writeState(out);
+                leaving.add(ship);
+                records++;
+            } else if (ship.x < x0 + GHOST_MARGIN || ship.x >= x1 - GHOST_MARGIN) {
+                out.put(GHOST).putInt(ship.uid).putInt(ship.x).putInt(ship.y)
+                   .putInt(ship.faction.ordinal()).putInt(ship.health).put((byte) ship.type.id);
+                records++;
+            }
+        }
+        for (int i = 0; i < leaving.size(); i++) world.release(leaving.get(i));
+        handoffsOut += leaving.size();
+
+        // Only balls still flying move between shards; landed ones finish animating where they are
+        List<Cannonball> balls = world.cannonballs();
+        for (int i = balls.size() - 1; i >= 0; i--) {
+            Cannonball cb = balls.get(i);
+            if (cb.hit || owns(cb.x)) continue;
+            out.put(BALL).putInt(cb.x).putInt(cb.y).putInt(cb.dx).putInt(cb.dy).putInt(cb.rangeLeft)
+               .putInt(uid(cb.target)).putInt(cb.target.x).putInt(cb.target.y).putInt(cb.target.faction.ordinal())
+               .putInt(cb.shooter.ordinal());
+            balls.remove(i);
+            handoffsOut++;
+            records++;
+        }
+
+        List<Ship.Rowboat> boats = world.rowboats();
+        for (int i = boats.size() - 1; i >= 0; i--) {
+            Ship.Rowboat boat = boats.get(i);
+            if (owns(boat.x)) continue;
+            out.put(BOAT).putInt(boat.x).putInt(boat.y).putInt(boat.faction.ordinal())
+               .putInt(islands.indexOf(boat.targetIsland)).put((byte) (boat.arrived ? 1 : 0))
+               .putInt(boat.waypoints.size());
+            for (Point wp : boat.waypoints) out.putInt(wp.x).putInt(wp.y);
+            boats.remove(i);
+            handoffsOut++;
+            records++;
+        }
+
+        for (Ghost ghost : ghosts.values()) {
+            int damage = ghost.reported - ghost.ship.health;
+            if (damage <= 0) continue;
+            out.put(DAMAGE).putInt(ghost.ship.uid).putInt(damage);
+            ghost.reported = ghost.ship.health;
+            records++;
+        }
+
+        Economy economy = world.economy();
+        for (int i = 0; i < economy.changedCount(); i++) {
+            int island = economy.changed(i);
+            out.put(CLAIM).putInt(island).putInt(islands.get(island).faction.ordinal()).putInt(islands.get(island).level);
+            records++;
+        }
+        out.putInt(0, records);
+        exchange.publish(shard, t);
+    }
+
+    private void receive(ByteBuffer in, long t) {
+        Faction[] factions = Faction.values();
+        int records = in.getInt();
+        for (int r = 0; r < records; r++) {
+            switch (in.get()) {
+                case SHIP -> {
+                    Ship ship = Ship.readState(in, islands, exchange.width, exchange.height, world.random(), world.shipTypes());
+                    if (owns(ship.x)) {
+                        world.adopt(ship);
+                        handoffsIn++;
+                    }
+                }
+                case GHOST -> {
+                    int uid = in.getInt(), x = in.getInt(), y = in.getInt();
+                    Faction faction = factions[in.getInt()];
+                    int health = in.getInt();
+                    ShipTypes.Type type = world.shipTypes().get(in.get()); // its hull size decides whether we hit it
+                    if (x < x0 - GHOST_MARGIN || x >= x1 + GHOST_MARGIN) continue; // someone else's border
+                    Ghost ghost = ghosts.get(uid);
+                    if (ghost == null) {
+                        ghost = new Ghost(new Ship(x, y, List.of(), faction, true, exchange.width, exchange.height));
+                        ghost.ship.uid = uid;
+                        ghosts.put(uid, ghost);
+                    }
+                    ghost.ship.x = x;
+                    ghost.ship.y = y;
+                    ghost.ship.health = health;
+                    ghost.ship.type = type;
+                    ghost.reported = health;
+                    ghost.seen = t;
+                }
+                case DAMAGE -> {
+                    int uid = in.getInt(), damage = in.getInt();
+                    Ship ship = owned(uid);
+                    if (ship != null) ship.health -= damage; // it may have just sailed on; then the hit is lost
+                }
+                case BALL -> {
+                    int x = in.getInt(), y = in.getInt(), dx = in.getInt(), dy = in.getInt(), range = in.getInt();
+                    int target = in.getInt(), tx = in.getInt(), ty = in.getInt();
+                    Faction faction = factions[in.getInt()], shooter = factions[in.getInt()];
+                    if (!owns(x)) continue;
+                    Ship ship = resolve(target, tx, ty, faction);
+                    world.cannonballs().add(Cannonball.inFlight(x, y, dx, dy, range, ship, shooter));
+                    handoffsIn++;
+                }
+                case BOAT -> {
+                    int x = in.getInt(), y = in.getInt();
+                    Faction faction = factions[in.getInt()];
+                    Island target = islands.get(in.getInt());
+                    boolean arrived = in.get() != 0;
+                    int count = in.getInt();
+                    List<Point> waypoints = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) waypoints.add(new Point(in.getInt(), in.getInt()));
+                    if (!owns(x)) continue;
+                    Ship.Rowboat boat = new Ship.Rowboat(x, y, target, islands, faction);
+                    boat.worldWidth = exchange.width;
+                    boat.worldHeight = exchange.height;
+                    boat.rand = world.random();
+                    boat.arrived = arrived;
+                    boat.waypoints.clear();
+                    boat.waypoints.addAll(waypoints);
+                    world.rowboats().add(boat);
+                    handoffsIn++;
+                }
+                case CLAIM -> {
+                    int island = in.getInt();
+                    Faction owner = factions[in.getInt()];
+                    world.economy().sync(island, owner, in.getInt(), world.pirates());
+                }
+                default -> throw new IllegalStateException("corrupt shard mailbox from tick " + t);
+            }
+        }
+    }
+
+    private Ship owned(int uid) {
+        List<Ship> ships = world.ships();
+        for (int i = 0; i < ships.size(); i++) {
+            if (ships.get(i).uid == uid) return ships.get(i);
+        }
+        return null;
+    }
+
+    // The ship a handed-off ball was fired at: ours, a ghost, or, if it's out of sight of
+    // this shard entirely, a stand-in where it was so the ball still flies and splashes
+    private Ship resolve(int uid, int x, int y, Faction faction) {
+        Ship ship = owned(uid);
+        if (ship != null) return ship;
+        Ghost ghost = ghosts.get(uid);
+        if (ghost != null) return ghost.ship;
+        Ship standIn = new Ship(x, y, List.of(), faction, true, exchange.width, exchange.height);
+        standIn.uid = uid;
+        return standIn;
+    }
+
+    // Drops ghosts that weren't reported this tick and hands the rest to the world, in uid order
+    private void pruneGhosts(long t) {
+        ghosts.values().removeIf(g -> g.seen != t);
+        List<Ship> list = world.ghosts();
+        list.clear();
+        for (Ghost ghost : ghosts.values()) list.add(ghost.ship);
+        list.sort((a, b) -> Integer.compare(a.uid, b.uid));
+    }
+}
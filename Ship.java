@@ -8,63 +8,67 @@ import java.awt.geom.AffineTransform;
 
 public class Ship {
     int x, y;
-    int size = 16; // was 16, now slightly bigger
+    ShipTypes.Type type = ShipTypes.SLOOP; // shared stat row; see ShipTypes
+    byte upgrades; // hull and gun levels packed by ShipTypes.upgrades
     int health = 10;
-    int maxHealth = 10;
     int cooldown = 0;
+    Faction lastHitBy; // whose cannonball hit us last, for kill credit
+    int cargo; // loot aboard, unloaded at a friendly port (see Economy)
     Direction dir;
     private int tick = 0;
-    private static final Random rand = new Random();
+    private final Random rand; // the world's, so a seeded world replays exactly
     public final Faction faction; // Add this line
+    final int worldWidth, worldHeight; // borders this ship is kept inside
 
     // Cannon flash timing
     private int cannonFlashTick = 0;
     private int firingCannon = -1; // Index of the cannon that is firing
 
-    // Wake trail system
-    private static class WakeSegment {
-        int x, y;
-
-        WakeSegment(int x, int y) {
-            this.x = x;
-            this.y = y;
+    // Wake trail system: fixed ring of the last WAKE_MAX positions, newest at wakeHead.
+    // Allocated once per ship, so sailing costs no garbage.
+    static final int WAKE_MAX = 20;
+    private final int[] wakeX = new int[WAKE_MAX], wakeY = new int[WAKE_MAX];
+    private int wakeHead = 0, wakeCount = 0;
+    private static final Color[] WAKE_COLORS = new Color[WAKE_MAX];
+
+    // Palette, shared so drawing doesn't allocate
+    private static final Color PURPLE = new Color(128, 0, 128);
+    private static final Color HULL = new Color(139, 69, 19);
+    private static final Color BOW = new Color(181, 101, 29);
+    private static final Color STERN = new Color(100, 50, 10);
+    private static final Color DECK = new Color(205, 133, 63);
+    private static final Color MAST = new Color(120, 120, 120);
+    private static final Color SAIL = new Color(240, 240, 240);
+    private static final Color CANNON = new Color(60, 60, 60);
+    private static final Color WRECK_HULL = new Color(90, 60, 40, 200);
+    private static final Color WRECK_MAST = new Color(70, 50, 30, 180);
+    private static final Color WRECK_PLANK = new Color(140, 110, 60, 120);
+    static {
+        for (int age = 0; age < WAKE_MAX; age++) {
+            WAKE_COLORS[age] = new Color(200, 225, 255, 140 * (WAKE_MAX - age) / WAKE_MAX); // fades with age
         }
     }
 
-    private LinkedList<WakeSegment> wakeTrail = new LinkedList<>();
-    private static final int WAKE_MAX = 20;
-
     private boolean attackMode = false;
 
+    // Last grid cell stamped into the InfluenceMap (-1 = not tracked yet)
+    int influenceCell = -1;
+    int visionCell = -1; // Visibility's equivalent
+
+    // Id on the snapshot stream, handed out by SnapshotServer (0 = not sent yet)
+    int netId;
+
+    // Id across shard processes, handed out by ShardWorker (0 = never left its shard)
+    int uid;
+
+    // Standing order from the faction's CaptainPlanner (null = free roam)
+    CaptainPlanner.Order order;
+
+    // Whether this ship is in the world's SweepAndPrune list
+    boolean swept = false;
+
     public Ship(int x, int y, List<Island> islands, Faction faction) { // Add faction param
-        this.faction = faction; // Set faction
-        // Ensure ship does not spawn on an island or too close to border
-        boolean valid;
-        do {
-            valid = true;
-            this.x = x;
-            this.y = y;
-            // Check border
-            if (x - size / 2 < 16 || x + size / 2 > GamePanel.WIDTH - 16 ||
-                y - size / 2 < 16 || y + size / 2 > GamePanel.HEIGHT - 16) {
-                valid = false;
-            }
-            // Check islands
-            for (Island island : islands) {
-                int dx = x - island.x;
-                int dy = y - island.y;
-                int minDist = size / 2 + island.radius + 24;
-                if (dx * dx + dy * dy < minDist * minDist) {
-                    valid = false;
-                    break;
-                }
-            }
-            if (!valid) {
-                x = 32 + rand.nextInt(GamePanel.WIDTH - 64);
-                y = 32 + rand.nextInt(GamePanel.HEIGHT - 64);
-            }
-        } while (!valid);
-        this.dir = Direction.random();
+        this(x, y, islands, faction, false);
     }
 
     // For compatibility, you may want to keep the old constructor for rowboats/respawn:
@@ -73,44 +77,81 @@ public class Ship {
     }
 
     public Ship(int x, int y, List<Island> islands, Faction faction, boolean exactSpawn) {
+        this(x, y, islands, faction, exactSpawn, GamePanel.WIDTH, GamePanel.HEIGHT);
+    }
+
+    public Ship(int x, int y, List<Island> islands, Faction faction, boolean exactSpawn, int worldWidth, int worldHeight) {
+        this(x, y, islands, faction, exactSpawn, worldWidth, worldHeight, new Random());
+    }
+
+    public Ship(int x, int y, List<Island> islands, Faction faction, boolean exactSpawn, int worldWidth, int worldHeight,
+                Random rand) {
+        this.rand = rand;
         this.faction = faction;
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
         this.x = x;
         this.y = y;
-        this.dir = Direction.random();
+        this.dir = Direction.random(rand);
         // No randomization if exactSpawn is true
         if (!exactSpawn) {
+            // Ensure ship does not spawn on an island or too close to border
             boolean valid;
             do {
                 valid = true;
                 // Check border
-                if (x - size / 2 < 16 || x + size / 2 > GamePanel.WIDTH - 16 ||
-                    y - size / 2 < 16 || y + size / 2 > GamePanel.HEIGHT - 16) {
+                if (x - size() / 2 < 16 || x + size() / 2 > worldWidth - 16 ||
+                    y - size() / 2 < 16 || y + size() / 2 > worldHeight - 16) {
                     valid = false;
                 }
                 // Check islands
                 for (Island island : islands) {
                     int dx = x - island.x;
                     int dy = y - island.y;
-                    int minDist = size / 2 + island.radius + 24;
+                    int minDist = size() / 2 + island.radius + 24;
                     if (dx * dx + dy * dy < minDist * minDist) {
                         valid = false;
                         break;
                     }
                 }
                 if (!valid) {
-                    x = 32 + rand.nextInt(GamePanel.WIDTH - 64);
-                    y = 32 + rand.nextInt(GamePanel.HEIGHT - 64);
+                    x = 32 + rand.nextInt(worldWidth - 64);
+                    y = 32 + rand.nextInt(worldHeight - 64);
                 }
             } while (!valid);
+            this.x = x;
+            this.y = y;
         }
     }
 
-    public void update(List<Ship> ships, List<Cannonball> cannonballs, List<Island> islands, List<HealthDrop> healthDrops) {
+    // Gives the ship its class and upgrades and sends it out at full health
+    Ship outfit(ShipTypes.Type type, byte upgrades) {
+        this.type = type;
+        this.upgrades = upgrades;
+        health = maxHealth();
+        return this;
+    }
+
+    int size() {
+        return type.size;
+    }
+
+    int maxHealth() {
+        return type.health + ShipTypes.hull(upgrades) * type.hullStep;
+    }
+
+    int reload() {
+        return Math.max(5, type.reload - ShipTypes.guns(upgrades) * type.gunStep);
+    }
+
+    // fog: what this ship's faction can see; enemies and drops outside it are ignored (null = sees all)
+    public void update(List<Ship> ships, List<Cannonball> cannonballs, List<Island> islands, List<HealthDrop> healthDrops,
+                       Visibility fog) {
         tick++;
 
         // Health management: move towards nearest health drop if health is under 80%
-        if (this.health < 0.8 * this.maxHealth) {
-            HealthDrop nearest = findNearestHealthDrop(healthDrops, 400); // 400px range, adjust as needed
+        if (this.health < 0.8 * maxHealth()) {
+            HealthDrop nearest = findNearestHealthDrop(healthDrops, 400, fog); // 400px range, adjust as needed
             if (nearest != null) {
                 // Move toward the health drop
                 double angle = Math.atan2(nearest.y - this.y, nearest.x - this.x);
@@ -123,9 +164,11 @@ public class Ship {
         // Find nearest enemy ship
         Ship target = null;
         double minDist = Double.MAX_VALUE;
-        for (Ship other : ships) {
+        for (int i = 0; i < ships.size(); i++) {
+            Ship other = ships.get(i);
             if (other == this) continue;
             if (other.faction == this.faction) continue; // Only attack enemy factions
+            if (fog != null && !fog.visible(faction, other.x, other.y)) continue; // a bit test beats the hypot
             double dist = Math.hypot(other.x - x, other.y - y);
             if (dist < minDist) {
                 minDist = dist;
@@ -134,20 +177,21 @@ public class Ship {
         }
 
         // Enter attack mode if a ship is in range, else wander randomly
-        if (target != null && minDist < 120) {
+        ShipTypes.Type t = type;
+        if (target != null && minDist < t.sight) {
             attackMode = true;
             int dx = target.x - x;
             int dy = target.y - y;
 
             // If too far from target, move closer
-            if (minDist > 80) {
+            if (minDist > t.close) {
                 // Move toward the target
                 if (Math.abs(dx) > Math.abs(dy)) {
                     dir = dx > 0 ? Direction.EAST : Direction.WEST;
                 } else {
                     dir = dy > 0 ? Direction.SOUTH : Direction.NORTH;
                 }
-            } else if (minDist < 48) {
+            } else if (minDist < t.keep) {
                 // If too close, move away
                 if (Math.abs(dx) > Math.abs(dy)) {
                     dir = dx > 0 ? Direction.WEST : Direction.EAST;
@@ -157,13 +201,20 @@ public class Ship {
             } else {
                 // In range: move randomly, but change direction sometimes
                 if (dir == null || rand.nextInt(20) == 0) {
-                    dir = Direction.random();
+                    dir = Direction.random(rand);
                 }
             }
+        } else if (order != null && Math.abs(order.x - x) + Math.abs(order.y - y) > 48) {
+            // Nothing in range: follow the captain's order, re-steering now and then
+            // so a ship knocked off course by an island gets back on track
+            if (attackMode || dir == null || rand.nextInt(15) == 0) {
+                dir = headingTo(order.x, order.y);
+            }
+            attackMode = false;
         } else {
             // Wander randomly if not in attack mode
             if (attackMode || dir == null || rand.nextInt(60) == 0) {
-                dir = Direction.random();
+                dir = Direction.random(rand);
             }
             attackMode = false;
         }
@@ -173,9 +224,9 @@ public class Ship {
         if (cooldown > 0) cooldown--;
 
         // Only shoot if in attack mode and in range
-        if (attackMode && target != null && minDist < 100 && cooldown == 0) {
-            cannonballs.add(new Cannonball(x, y, target));
-            cooldown = 30;
+        if (attackMode && target != null && minDist < t.fire && cooldown == 0) {
+            cannonballs.add(new Cannonball(x, y, target, faction));
+            cooldown = reload();
             cannonFlashTick = 5;
             firingCannon = rand.nextInt(4);
         }
@@ -184,57 +235,104 @@ public class Ship {
         else firingCannon = -1; // Reset after flash ends
     }
 
+    private Direction headingTo(int tx, int ty) {
+        int dx = tx - x;
+        int dy = ty - y;
+        if (Math.abs(dx) > Math.abs(dy)) {
+            return dx > 0 ? Direction.EAST : Direction.WEST;
+        }
+        return dy > 0 ? Direction.SOUTH : Direction.NORTH;
+    }
+
     public void move(List<Island> islands) {
         int nextX = x + dir.dx;
         int nextY = y + dir.dy;
 
+        if (!blocked(nextX, nextY, islands)) {
+            x = nextX;
+            y = nextY;
+
+            // Add a wake segment at the new position, overwriting the oldest
+            wakeHead = (wakeHead + 1) % WAKE_MAX;
+            wakeX[wakeHead] = x;
+            wakeY[wakeHead] = y;
+            if (wakeCount < WAKE_MAX) wakeCount++;
+        } else {
+            // Pick a new random direction if blocked by an island or border
+            dir = Direction.random(rand);
+        }
+    }
+
+    // Island or world border in the way at (nextX, nextY)?
+    private boolean blocked(int nextX, int nextY, List<Island> islands) {
         // Check collision with islands
-        boolean collides = false;
-        for (Island island : islands) {
+        for (int i = 0; i < islands.size(); i++) {
+            Island island = islands.get(i);
             int dx = nextX - island.x;
             int dy = nextY - island.y;
-            int minDist = size / 2 + island.radius;
+            int minDist = size() / 2 + island.radius;
             if (dx * dx + dy * dy < minDist * minDist) {
-                collides = true;
-                break;
+                return true;
             }
         }
 
-        // Check world borders (assuming GamePanel.WIDTH/HEIGHT)
-        if (nextX - size / 2 < 0 || nextX + size / 2 > GamePanel.WIDTH ||
-            nextY - size / 2 < 0 || nextY + size / 2 > GamePanel.HEIGHT) {
-            collides = true;
+        // Check world borders
+        return nextX - size() / 2 < 0 || nextX + size() / 2 > worldWidth ||
+               nextY - size() / 2 < 0 || nextY + size() / 2 > worldHeight;
+    }
+
+    // Sideways shove from ship-to-ship separation; ignored if it would hit land or the border
+    void nudge(int dx, int dy, List<Island> islands) {
+        if (!blocked(x + dx, y + dy, islands)) {
+            x += dx;
+            y += dy;
         }
+    }
 
-        if (!collides) {
-            x = nextX;
-            y = nextY;
+    boolean attacking() {
+        return attackMode;
+    }
+
+    int wakeCount() {
+        return wakeCount;
+    }
 
-            // Add a wake segment at the new position
-            wakeTrail.addFirst(new WakeSegment(x, y));
-            if (wakeTrail.size() > WAKE_MAX) {
-                wakeTrail.removeLast();
+    // Wake position age steps ago (0 = newest)
+    int wakeX(int age) {
+        return wakeX[(wakeHead - age + WAKE_MAX) % WAKE_MAX];
+    }
+
+    int wakeY(int age) {
+        return wakeY[(wakeHead - age + WAKE_MAX) % WAKE_MAX];
+    }
+
+    static Color wakeColor(int age) {
+        return WAKE_COLORS[age];
+    }
+
+    // Draws the wakes of many ships in one pass: one colour change per age, not per segment
+    static void drawWakes(Graphics g, Ship[] ships, int count) {
+        for (int age = WAKE_MAX - 1; age >= 0; age--) {
+            g.setColor(WAKE_COLORS[age]);
+            for (int i = 0; i < count; i++) {
+                Ship s = ships[i];
+                if (age < s.wakeCount) g.fillRect(s.wakeX(age) - 1, s.wakeY(age) + 3, 2, 2);
             }
-        } else {
-            // Pick a new random direction if blocked by an island or border
-            dir = Direction.random();
         }
     }
 
     public void draw(Graphics g) {
-        Graphics2D g2 = (Graphics2D) g.create();
+        drawHull(g, x, y, size(), faction);
+        drawHealthBar(g);
+    }
 
-        int px = x - size / 2;
-        int py = y - size / 2;
+    // Everything but the health bar, so renderers can bake it once per faction and size.
+    // The art is drawn on a 16px grid and scaled to the class's hull length.
+    static void drawHull(Graphics g, int x, int y, int size, Faction faction) {
+        Graphics2D g2 = (Graphics2D) g.create();
 
         // Faction outline
-        Color factionColor = switch (faction) {
-            case RED -> Color.RED;
-            case BLUE -> Color.BLUE;
-            case GREEN -> Color.GREEN;
-            case YELLOW -> Color.YELLOW;
-            case PURPLE -> new Color(128, 0, 128);
-        };
+        Color factionColor = factionColor(faction);
 
         // Draw faction color square above the ship
         g2.setColor(factionColor);
@@ -242,53 +340,96 @@ public class Ship {
         g2.setColor(Color.BLACK);
         g2.drawRect(x - 4, y - size / 2 - 12, 8, 8);
 
+        // Hull art in 16px units from the top-left corner
+        g2.translate(x - size / 2, y - size / 2);
+        if (size != 16) g2.scale(size / 16.0, size / 16.0);
+
         // Pixel-art ship body (brown hull)
-        g2.setColor(new Color(139, 69, 19));
-        g2.fillRect(px + 3, py + 7, 10, 4);
+        g2.setColor(HULL);
+        g2.fillRect(3, 7, 10, 4);
 
         // Bow (front, lighter brown)
-        g2.setColor(new Color(181, 101, 29));
-        g2.fillRect(px + 2, py + 8, 2, 2);
+        g2.setColor(BOW);
+        g2.fillRect(2, 8, 2, 2);
 
         // Stern (back, darker brown)
-        g2.setColor(new Color(100, 50, 10));
-        g2.fillRect(px + 12, py + 8, 2, 2);
+        g2.setColor(STERN);
+        g2.fillRect(12, 8, 2, 2);
 
         // Deck (lighter stripe)
-        g2.setColor(new Color(205, 133, 63));
-        g2.fillRect(px + 5, py + 9, 6, 1);
+        g2.setColor(DECK);
+        g2.fillRect(5, 9, 6, 1);
 
         // Mast (gray)
-        g2.setColor(new Color(120, 120, 120));
-        g2.fillRect(px + 7, py + 4, 2, 5);
+        g2.setColor(MAST);
+        g2.fillRect(7, 4, 2, 5);
 
         // Sail (white)
-        g2.setColor(new Color(240, 240, 240));
-        g2.fillRect(px + 6, py + 2, 4, 4);
+        g2.setColor(SAIL);
+        g2.fillRect(6, 2, 4, 4);
 
         // Flag (faction color)
         g2.setColor(factionColor);
-        g2.fillRect(px + 8, py + 1, 3, 1);
+        g2.fillRect(8, 1, 3, 1);
 
         // Cannons (dark gray dots)
-        g2.setColor(new Color(60, 60, 60));
-        g2.fillRect(px + 4, py + 11, 2, 2);
-        g2.fillRect(px + 10, py + 11, 2, 2);
-
-        // Health bar (tiny, above ship)
-        g2.setColor(Color.RED);
-        g2.fillRect(x - 8, y - size / 2 - 4, 16, 2);
-        g2.setColor(Color.GREEN);
-        g2.fillRect(x - 8, y - size / 2 - 4, 16 * health / maxHealth, 2);
+        g2.setColor(CANNON);
+        g2.fillRect(4, 11, 2, 2);
+        g2.fillRect(10, 11, 2, 2);
 
         g2.dispose();
     }
 
+    // Health bar (tiny, above ship)
+    void drawHealthBar(Graphics g) {
+        g.setColor(Color.RED);
+        g.fillRect(x - 8, y - size() / 2 - 4, 16, 2);
+        g.setColor(Color.GREEN);
+        g.fillRect(x - 8, y - size() / 2 - 4, 16 * Math.max(0, health) / maxHealth(), 2);
+    }
+
+    // Shard handoff (see ShardWorker): everything the ship's behaviour depends on.
+    // The wake and the captain's order start fresh in the new shard.
+    void writeState(java.nio.ByteBuffer out) {
+        out.putInt(uid).putInt(x).putInt(y).putInt(faction.ordinal()).putInt(health).putInt(cooldown)
+           .putInt(dir == null ? -1 : dir.ordinal()).put((byte) (attackMode ? 1 : 0)).putInt(tick).putInt(cargo)
+           .put((byte) type.id).put(upgrades);
+    }
+
+    static Ship readState(java.nio.ByteBuffer in, List<Island> islands, int worldWidth, int worldHeight, Random rand,
+                          ShipTypes types) {
+        int uid = in.getInt(), x = in.getInt(), y = in.getInt();
+        Ship ship = new Ship(x, y, islands, Faction.values()[in.getInt()], true, worldWidth, worldHeight, rand);
+        ship.uid = uid;
+        ship.health = in.getInt();
+        ship.cooldown = in.getInt();
+        int dir = in.getInt();
+        ship.dir = dir < 0 ? null : Direction.values()[dir];
+        ship.attackMode = in.get() != 0;
+        ship.tick = in.getInt();
+        ship.cargo = in.getInt();
+        ship.type = types.get(in.get());
+        ship.upgrades = in.get();
+        return ship;
+    }
+
+    static Color factionColor(Faction faction) {
+        return switch (faction) {
+            case RED -> Color.RED;
+            case BLUE -> Color.BLUE;
+            case GREEN -> Color.GREEN;
+            case YELLOW -> Color.YELLOW;
+            case PURPLE -> PURPLE;
+        };
+    }
+
     // --- New methods for shipwreck and rowboat --
 
-    public void destroy(List<Shipwreck> wrecks, List<Rowboat> rowboats, List<Island> islands) {
-        // Spawn a shipwreck at the ship's position
-        wrecks.add(new Shipwreck(x, y));
+    public void destroy(List<Shipwreck> wrecks, List<Rowboat> rowboats, List<Island> islands, TimingWheel timers) {
+        // Spawn a shipwreck at the ship's position; it sinks for good after LIFE ticks
+        Shipwreck wreck = new Shipwreck(x, y, timers);
+        wrecks.add(wreck);
+        wreck.expiry = timers.schedule(Shipwreck.LIFE, wreck);
         // Find the island with the same faction as this ship
         Island targetIsland = null;
         for (Island island : islands) {
@@ -298,41 +439,52 @@ public class Ship {
             }
         }
         if (targetIsland != null) {
-            rowboats.add(new Rowboat(x, y, targetIsland, islands, this.faction));
+            Rowboat boat = new Rowboat(x, y, targetIsland, islands, this.faction);
+            boat.worldWidth = worldWidth;
+            boat.worldHeight = worldHeight;
+            boat.rand = rand;
+            rowboats.add(boat);
         }
         // Remove or mark this ship as destroyed (handled in GamePanel)
     }
 
     // --- Shipwreck class with animation ---
-    public static class Shipwreck {
+    public static class Shipwreck implements Runnable {
+        static final int LIFE = 600; // frames to stay
         int x, y;
-        int life = 600; // frames to stay
-        int bobTick = 0;
+        long born;
+        TimingWheel.Timeout expiry; // run() marks it sunk; the world sweeps it out
+        boolean expired;
+        int netId; // see SnapshotServer
+        private final TimingWheel clock;
 
-        public Shipwreck(int x, int y) {
+        public Shipwreck(int x, int y, TimingWheel clock) {
             this.x = x;
             this.y = y;
+            this.clock = clock;
+            this.born = clock.now();
         }
 
-        public void update() {
-            life--;
-            bobTick++;
+        @Override
+        public void run() {
+            expired = true;
         }
 
         public void draw(Graphics g) {
             Graphics2D g2 = (Graphics2D) g;
+            long bobTick = clock.now() - born;
             int bob = (int)(Math.sin(bobTick * 0.08) * 2);
 
             // Draw broken hull
-            g2.setColor(new Color(90, 60, 40, 200));
+            g2.setColor(WRECK_HULL);
             g2.fillRoundRect(x - 14, y - 6 + bob, 28, 12, 8, 8);
 
             // Draw mast stump
-            g2.setColor(new Color(70, 50, 30, 180));
+            g2.setColor(WRECK_MAST);
             g2.fillRect(x - 2, y - 18 + bob, 4, 12);
 
             // Draw some floating planks
-            g2.setColor(new Color(140, 110, 60, 120));
+            g2.setColor(WRECK_PLANK);
             for (int i = 0; i < 3; i++) {
                 int px = x - 10 + i * 10;
                 int py = y + 6 + (int)(Math.sin(bobTick * 0.12 + i) * 2);
@@ -360,6 +512,8 @@ public class Ship {
         Ship respawnShip = null;
         int tick = 0;
         Faction faction;
+        int worldWidth = GamePanel.WIDTH, worldHeight = GamePanel.HEIGHT; // for the ship it respawns
+        Random rand = new Random(); // replaced by the sinking ship's, i.e. the world's
         List<Point> waypoints = new LinkedList<>();
 
         public Rowboat(int x, int y, Island targetIsland, List<Island> islands, Faction faction) {
@@ -399,7 +553,7 @@ public class Ship {
                         blocked = true;
                         // Generate a detour waypoint to the left or right of the island
                         double angle = Math.atan2(dy, dx);
-                        double detourAngle = angle + (Math.random() > 0.5 ? Math.PI / 2 : -Math.PI / 2); // random left/right
+                        double detourAngle = angle + (rand.nextBoolean() ? Math.PI / 2 : -Math.PI / 2); // random left/right
                         int detourDist = island.radius + 28;
                         int wx = island.x + (int)(Math.cos(detourAngle) * detourDist);
                         int wy = island.y + (int)(Math.sin(detourAngle) * detourDist);
@@ -421,7 +575,7 @@ public class Ship {
                         arrived = true;
                         // Respawn a new ship at the port
                         if (respawnShip == null) {
-                            ships.add(new Ship(x, y, islands, faction));
+                            ships.add(new Ship(x, y, islands, faction, false, worldWidth, worldHeight, rand));
                             respawnShip = ships.get(ships.size() - 1);
                         }
                     }
@@ -432,7 +586,7 @@ public class Ship {
             } else if (arrived && respawnShip == null) {
                 // Always respawn at the port location of the target island
                 Point port = targetIsland.getPortLocation();
-                ships.add(new Ship(port.x, port.y, islands, faction, true)); // true = exact spawn
+                ships.add(new Ship(port.x, port.y, islands, faction, true, worldWidth, worldHeight, rand)); // true = exact spawn
                 respawnShip = ships.get(ships.size() - 1);
             }
         }
@@ -445,26 +599,21 @@ public class Ship {
                 g2.fillOval(wp.x - 3, wp.y - 3, 6, 6);
             }
             // Simple brown rowboat
-            g2.setColor(new Color(139, 69, 19));
+            g2.setColor(HULL);
             g2.fillRect(x - 6, y - 3, 12, 6);
             // Faction color flag
-            Color factionColor = switch (faction) {
-                case RED -> Color.RED;
-                case BLUE -> Color.BLUE;
-                case GREEN -> Color.GREEN;
-                case YELLOW -> Color.YELLOW;
-                case PURPLE -> new Color(128, 0, 128);
-            };
-            g2.setColor(factionColor);
+            g2.setColor(factionColor(faction));
             g2.fillRect(x + 2, y - 6, 4, 2);
         }
     }
 
     // --- New method to find nearest health drop ---
-    public HealthDrop findNearestHealthDrop(List<HealthDrop> healthDrops, int range) {
+    public HealthDrop findNearestHealthDrop(List<HealthDrop> healthDrops, int range, Visibility fog) {
         HealthDrop nearest = null;
         int minDistSq = range * range;
-        for (HealthDrop drop : healthDrops) {
+        for (int i = 0; i < healthDrops.size(); i++) {
+            HealthDrop drop = healthDrops.get(i);
+            if (fog != null && !fog.visible(faction, drop.x, drop.y)) continue;
             int dx = drop.x - this.x;
             int dy = drop.y - this.y;
             int distSq = dx * dx + dy * dy;
@@ -0,0 +1,226 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Random;
+
+// Ship archetypes: one immutable row of stats per class, shared by every ship of that class.
+// A ship only carries a reference to its row plus a packed byte of upgrade levels, so adding
+// classes costs nothing per ship.
+//
+// Rows come from a plain text file (ships.txt by default) that is re-read when it changes, so
+// balance tweaks land in a running game. A reload builds a whole new Table (rows, odds and
+// version together) and swaps it in with one volatile write; readers take the Table once and
+// see the old rows or the new ones, never a mix. Worlds notice the version bump and re-point
+// their ships at the new rows by id (see World.update).
+//
+// Batch runs (MonteCarlo, SoakTest) use a frozen instance instead, read once and never
+// polled, so an edit to the file mid-run can't change what a seed replays.
+public class ShipTypes {
+    static final int MAX_TYPES = 16;  // ids are 0..15, so they fit the snapshot stream's faction byte
+    static final int MAX_LEVEL = 15;  // per upgrade track; two tracks share a byte
+    static final int MAX_SIGHT = 160; // shard ghost margins assume this; the fog's sight radius is derived from it
+    private static final long POLL_NANOS = 1_000_000_000L; // how often we stat the file
+
+    public static final class Type {
+        final int id;
+        final String name;
+        final int size;     // hull length in px, for collisions and hits
+        final int health;
+        final int reload;   // ticks between broadsides
+        final int sight;    // engages enemies closer than this
+        final int fire;     // opens fire inside this
+        final int close;    // closes in while further than this
+        final int keep;     // backs off while nearer than this
+        final int share;    // relative odds of being built
+        final int hullStep; // extra health per hull upgrade
+        final int gunStep;  // reload ticks saved per gun upgrade
+
+        Type(int id, String name, int size, int health, int reload, int sight, int fire, int close, int keep,
+             int share, int hullStep, int gunStep) {
+            this.id = id;
+            this.name = name;
+            this.size = size;
+            this.health = health;
+            this.reload = reload;
+            this.sight = sight;
+            this.fire = fire;
+            this.close = close;
+            this.keep = keep;
+            this.share = share;
+            this.hullStep = hullStep;
+            this.gunStep = gunStep;
+        }
+    }
+
+    // What every ship was before archetypes; used when there's no file
+    static final Type SLOOP = new Type(0, "sloop", 16, 10, 30, 120, 100, 80, 48, 1, 3, 4);
+
+    // One immutable generation of the table; never changed once published
+    private static final class Table {
+        final Type[] rows;  // indexed by id; gaps are null
+        final int[] picks;  // cumulative shares, parallel to rows
+        final int version;
+
+        Table(Type[] rows, int version) {
+            int[] cumulative = new int[rows.length];
+            int sum = 0;
+            for (int i = 0; i < rows.length; i++) {
+                if (rows[i] != null) sum += rows[i].share;
+                cumulative[i] = sum;
+            }
+            if (sum <= 0) throw new IllegalArgumentException("no class has a share above 0");
+            this.rows = rows;
+            this.picks = cumulative;
+            this.version = version;
+        }
+    }
+
+    private static volatile ShipTypes shared;
+
+    private final Path file;
+    private final boolean live;      // false = read once, poll() never looks at the file again
+    private volatile Table table;
+    private long modified = -1;      // file time the table was read at
+    private volatile long nextPoll;
+
+    ShipTypes(Path file) {
+        this(file, true);
+    }
+
+    private ShipTypes(Path file, boolean live) {
+        this.file = file;
+        this.live = live;
+        table = new Table(new Type[] { SLOOP }, 0);
+        reload();
+    }
+
+    // The file as it is now, for runs that must replay: later edits are ignored
+    static ShipTypes frozen(Path file) {
+        return new ShipTypes(file, false);
+    }
+
+    // The table every world uses unless told otherwise; --ships=FILE points it elsewhere
+    static ShipTypes shared() {
+        ShipTypes s = shared;
+        if (s == null) {
+            synchronized (ShipTypes.class) {
+                if (shared == null) shared = new ShipTypes(Paths.get("ships.txt"));
+                s = shared;
+            }
+        }
+        return s;
+    }
+
+    static synchronized void useFile(Path file) {
+        shared = new ShipTypes(file);
+    }
+
+    // Where the rows come from, so other processes can read the same file (see ShardCoordinator)
+    Path file() {
+        return file;
+    }
+
+    // Row for an id; ids the current table doesn't have fall back to row 0
+    Type get(int id) {
+        Type[] t = table.rows;
+        Type type = id >= 0 && id < t.length ? t[id] : null;
+        return type != null ? type : t[0];
+    }
+
+    // A random class, weighted by share
+    Type pick(Random rand) {
+        Table t = table;
+        int[] cumulative = t.picks;
+        int r = rand.nextInt(cumulative[cumulative.length - 1]);
+        for (int i = 0; i < cumulative.length; i++) {
+            if (r < cumulative[i]) return t.rows[i];
+        }
+        return t.rows[0];
+    }
+
+    int version() {
+        return table.version;
+    }
+
+    // Cheap enough to call every tick: only looks at the file once a second.
+    // Returns the version, which moves whenever a new table was swapped in.
+    int poll() {
+        if (!live) return table.version;
+        long now = System.nanoTime();
+        if (now - nextPoll < 0) return table.version;
+        nextPoll = now + POLL_NANOS;
+        synchronized (this) {
+            try {
+                if (Files.exists(file) && Files.getLastModifiedTime(file).toMillis() != modified) reload();
+            } catch (IOException e) {
+                System.err.println("ship types: " + e.getMessage());
+            }
+        }
+        return table.version;
+    }
+
+    // Re-reads the file; a missing file keeps the built-in sloop, a bad one keeps the old table
+    synchronized void reload() {
+        if (!Files.exists(file)) return;
+        try {
+            modified = Files.getLastModifiedTime(file).toMillis();
+            table = new Table(parse(Files.readAllLines(file)), table.version + 1);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("ship types: " + file + ": " + e.getMessage() + " (keeping the old table)");
+        }
+    }
+
+    // id name size health reload sight fire close keep share hull guns; # starts a comment
+    static Type[] parse(List<String> lines) {
+        Type[] rows = new Type[MAX_TYPES];
+        int count = 0;
+        for (int n = 0; n < lines.size(); n++) {
+            String line = lines.get(n);
+            int hash = line.indexOf('#');
+            if (hash >= 0) line = line.substring(0, hash);
+            line = line.trim();
+            if (line.isEmpty()) continue;
+            String[] f = line.split("\\s+");
+            if (f.length != 12) throw new IllegalArgumentException("line " + (n + 1) + ": expected 12 columns");
+            int[] v = new int[12];
+            for (int i = 0; i < 12; i++) {
+                if (i == 1) continue;
+                try {
+                    v[i] = Integer.parseInt(f[i]);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("line " + (n + 1) + ": not a number: " + f[i]);
+                }
+            }
+            int id = v[0];
+            if (id < 0 || id >= MAX_TYPES) throw new IllegalArgumentException("line " + (n + 1) + ": id out of range");
+            if (rows[id] != null) throw new IllegalArgumentException("line " + (n + 1) + ": duplicate id " + id);
+            if (v[2] < 4 || v[2] > 32 || v[3] < 1 || v[4] < 1 || v[9] < 0 || v[10] < 0 || v[11] < 0) {
+                throw new IllegalArgumentException("line " + (n + 1) + ": stat out of range");
+            }
+            if (v[5] > MAX_SIGHT || v[6] > v[5] || v[8] > v[7]) {
+                throw new IllegalArgumentException("line " + (n + 1) + ": need keep <= close and fire <= sight <= " + MAX_SIGHT);
+            }
+            rows[id] = new Type(id, f[1], v[2], v[3], v[4], v[5], v[6], v[7], v[8], v[9], v[10], v[11]);
+            count = Math.max(count, id + 1);
+        }
+        if (rows[0] == null) throw new IllegalArgumentException("no class with id 0");
+        Type[] table = new Type[count];
+        System.arraycopy(rows, 0, table, 0, count);
+        return table;
+    }
+
+    // Upgrade byte: hull levels in the low nibble, gun levels in the high one
+    static byte upgrades(int hull, int guns) {
+        return (byte) (Math.min(hull, MAX_LEVEL) | Math.min(guns, MAX_LEVEL) << 4);
+    }
+
+    static int hull(byte upgrades) {
+        return upgrades & 0x0f;
+    }
+
+    static int guns(byte upgrades) {
+        return (upgrades >> 4) & 0x0f;
+    }
+}
@@ -0,0 +1,189 @@
+import javax.swing.*;
+import java.awt.*;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+// Thin spectator: connects to a SnapshotServer, mirrors the entity tables it streams and
+// draws them with the same art as the game. It never simulates anything.
+// Islands arrive once per keyframe as position, radius and faction; their decorations
+// are re-rolled locally, so trees and houses won't match the server's exactly.
+public class SnapshotClient extends JPanel implements Runnable {
+    private final SocketChannel channel;
+    private final Camera camera;
+    private final int worldWidth, worldHeight;
+    private ByteBuffer in = ByteBuffer.allocate(64 * 1024);
+
+    // Mirror, double-buffered: the reader thread decodes into back, then swaps under the lock
+    private final Object lock = new Object();
+    private SnapshotCodec.Table[] front = tables(), back = tables();
+    private final SnapshotCodec.Table[] none = tables();
+    private List<Island> islands = new ArrayList<>();
+    private int[] islandData; // latest keyframe's islands, 4 ints each; owners are applied from it
+    private long tick;
+
+    // Models posed at each mirrored entity for drawing
+    private final Ship[] shipModels;
+    private final HealthDrop dropModel = new HealthDrop(0, 0);
+    private final Ship.Shipwreck wreckModel = new Ship.Shipwreck(0, 0, new TimingWheel());
+    private final OceanRenderer ocean = OceanRenderer.configured(1L);
+
+    // Connects and blocks until the first keyframe, which tells us how big the world is
+    public static SnapshotClient connect(String host, int port) throws IOException {
+        SocketChannel channel = SocketChannel.open(new InetSocketAddress(host, port));
+        return new SnapshotClient(channel);
+    }
+
+    private SnapshotClient(SocketChannel channel) throws IOException {
+        this.channel = channel;
+        ByteBuffer first = readFrame();
+        if (first.get() != SnapshotCodec.KEYFRAME) throw new IOException("stream did not start with a keyframe");
+        first.getLong(); // tick, applied again below
+        worldWidth = first.getInt();
+        worldHeight = first.getInt();
+        first.rewind();
+        apply(first);
+
+        Faction[] factions = Faction.values();
+        shipModels = new Ship[factions.length];
+        for (Faction f : factions) shipModels[f.ordinal()] = new Ship(0, 0, List.of(), f, true);
+        camera = new Camera(worldWidth, worldHeight, GamePanel.WIDTH, GamePanel.HEIGHT);
+        setPreferredSize(new Dimension(GamePanel.WIDTH, GamePanel.HEIGHT));
+        camera.attach(this);
+    }
+
+    private static SnapshotCodec.Table[] tables() {
+        SnapshotCodec.Table[] t = new SnapshotCodec.Table[SnapshotCodec.KINDS];
+        for (int k = 0; k < t.length; k++) t[k] = new SnapshotCodec.Table();
+        return t;
+    }
+
+    public void start() {
+        Thread reader = new Thread(this, "snapshot-reader");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (true) {
+                apply(readFrame());
+                repaint();
+            }
+        } catch (IOException e) {
+            System.err.println("snapshot client: connection lost: " + e.getMessage());
+        }
+    }
+
+    // Reads one length-prefixed frame; the returned buffer starts at the frame type
+    private ByteBuffer readFrame() throws IOException {
+        in.clear().limit(4);
+        fill(in);
+        int length = in.getInt(0);
+        if (in.capacity() < length) in = ByteBuffer.allocate(Math.max(length, in.capacity() * 2));
+        in.clear().limit(length);
+        fill(in);
+        in.flip();
+        return in;
+    }
+
+    private void fill(ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            if (channel.read(buf) < 0) throw new EOFException("server closed the stream");
+        }
+    }
+
+    private void apply(ByteBuffer frame) throws IOException {
+        boolean key = frame.get() == SnapshotCodec.KEYFRAME;
+        long frameTick = frame.getLong();
+        List<Island> frameIslands = islands;
+        if (key) {
+            frame.getInt(); // world size doesn't change mid-stream
+            frame.getInt();
+            frameIslands = readIslands(frame);
+        }
+        for (int k = 0; k < SnapshotCodec.KINDS; k++) {
+            SnapshotCodec.decodeKind(frame, key ? none[k] : front[k], back[k]);
+        }
+        synchronized (lock) {
+            SnapshotCodec.Table[] swap = front;
+            front = back;
+            back = swap;
+            islands = frameIslands;
+            tick = frameTick;
+            if (key) applyOwners();
+        }
+    }
+
+    // Keeps the islands we already built when the keyframe describes the same ones;
+    // owners and levels change in place (applyOwners) so the decorations stay put
+    private List<Island> readIslands(ByteBuffer frame) {
+        int count = frame.getInt();
+        int[] data = new int[count * 4];
+        for (int i = 0; i < data.length; i++) data[i] = frame.getInt();
+        islandData = data;
+        boolean same = islands.size() == count;
+        for (int i = 0; same && i < count; i++) {
+            Island island = islands.get(i);
+            same = island.x == data[i * 4] && island.y == data[i * 4 + 1] && island.radius == data[i * 4 + 2];
+        }
+        if (same) return islands;
+        Faction[] factions = Faction.values();
+        List<Island> built = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            built.add(new Island(data[i * 4], data[i * 4 + 1], data[i * 4 + 2], factions[data[i * 4 + 3] & 0xFF]));
+        }
+        return built;
+    }
+
+    private void applyOwners() {
+        Faction[] factions = Faction.values();
+        for (int i = 0; i < islands.size(); i++) {
+            islands.get(i).faction = factions[islandData[i * 4 + 3] & 0xFF];
+            islands.get(i).level = islandData[i * 4 + 3] >> 8;
+        }
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        g.setColor(Color.BLACK);
+        g.fillRect(0, 0, getWidth(), getHeight());
+        Graphics2D g2 = (Graphics2D) g.create();
+        camera.apply(g2);
+        Rectangle view = camera.visible();
+        synchronized (lock) {
+            ocean.draw(g2, tick, view.x, view.y, view.width, view.height);
+            for (Island island : islands) island.draw(g2);
+
+            SnapshotCodec.Table ships = front[SnapshotCodec.SHIPS];
+            for (int i = 0; i < ships.n; i++) {
+                Ship model = shipModels[ships.a[i]];
+                model.x = ships.x[i];
+                model.y = ships.y[i];
+                model.health = ships.b[i];
+                model.draw(g2);
+            }
+            SnapshotCodec.Table balls = front[SnapshotCodec.CANNONBALLS];
+            for (int i = 0; i < balls.n; i++) Cannonball.drawFrame(g2, balls.x[i], balls.y[i], balls.b[i]);
+            SnapshotCodec.Table wrecks = front[SnapshotCodec.WRECKS];
+            for (int i = 0; i < wrecks.n; i++) {
+                wreckModel.x = wrecks.x[i];
+                wreckModel.y = wrecks.y[i];
+                wreckModel.draw(g2);
+            }
+            SnapshotCodec.Table drops = front[SnapshotCodec.DROPS];
+            for (int i = 0; i < drops.n; i++) {
+                dropModel.x = drops.x[i];
+                dropModel.y = drops.y[i];
+                dropModel.draw(g2);
+            }
+        }
+        g2.dispose();
+    }
+}
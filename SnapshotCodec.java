@@ -0,0 +1,203 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+// Wire format for world snapshots, shared by SnapshotServer and SnapshotClient.
+//
+// A frame is [int length][byte KEYFRAME|DELTA][long tick], then for a keyframe the
+// world size and the islands, then one section per entity kind: [int opCount] and that
+// many ops in ascending entity id. Each op is a flag byte plus a varint id:
+//   SPAWN    x, y as unsigned 16-bit, then the fixed byte a and the changing byte b
+//   DESPAWN  nothing else
+//   NUDGE    dx, dy as signed bytes (ships move a pixel or two a tick)
+//   MOVE     x, y as unsigned 16-bit, when a nudge won't reach
+//   STATE    new b
+// Unchanged entities cost nothing. A keyframe is just a delta against an empty table.
+// Both ends hold a table per kind sorted by id, so applying a delta is a single merge.
+public class SnapshotCodec {
+    static final int SHIPS = 0, CANNONBALLS = 1, DROPS = 2, WRECKS = 3, KINDS = 4;
+    static final byte KEYFRAME = 1, DELTA = 2;
+
+    private static final int OP_SPAWN = 0x80, OP_DESPAWN = 0x40, OP_NUDGE = 0x01, OP_MOVE = 0x02, OP_STATE = 0x04;
+    private static final int MAX_OP_BYTES = 1 + 5 + 4 + 2; // flag, varint id, x/y, a/b
+    private static final Table EMPTY = new Table();
+
+    // One kind of entity as of one tick: parallel arrays sorted by id.
+    // a is fixed for the entity's life (faction), b is the part that changes (health, frame).
+    static final class Table {
+        int[] id = new int[64], x = new int[64], y = new int[64], a = new int[64], b = new int[64];
+        int n;
+
+        void clear() {
+            n = 0;
+        }
+
+        void add(int eid, int ex, int ey, int ea, int eb) {
+            if (n == id.length) {
+                int capacity = n * 2;
+                id = Arrays.copyOf(id, capacity);
+                x = Arrays.copyOf(x, capacity);
+                y = Arrays.copyOf(y, capacity);
+                a = Arrays.copyOf(a, capacity);
+                b = Arrays.copyOf(b, capacity);
+            }
+            id[n] = eid;
+            x[n] = quantize(ex);
+            y[n] = quantize(ey);
+            a[n] = ea & 0xff;
+            b[n] = eb & 0xff;
+            n++;
+        }
+
+        private void copy(Table from, int i) {
+            add(from.id[i], from.x[i], from.y[i], from.a[i], from.b[i]);
+        }
+
+        // Ids are handed out in list order so tables almost always arrive sorted;
+        // insertion sort makes the rare exception cheap
+        void sort() {
+            for (int i = 1; i < n; i++) {
+                if (id[i - 1] < id[i]) continue;
+                int ki = id[i], kx = x[i], ky = y[i], ka = a[i], kb = b[i];
+                int j = i - 1;
+                for (; j >= 0 && id[j] > ki; j--) {
+                    id[j + 1] = id[j];
+                    x[j + 1] = x[j];
+                    y[j + 1] = y[j];
+                    a[j + 1] = a[j];
+                    b[j + 1] = b[j];
+                }
+                id[j + 1] = ki;
+                x[j + 1] = kx;
+                y[j + 1] = ky;
+                a[j + 1] = ka;
+                b[j + 1] = kb;
+            }
+        }
+    }
+
+    static int quantize(int v) {
+        return Math.max(0, Math.min(0xffff, v));
+    }
+
+    // Upper bound on a frame's size, for sizing the encode buffer
+    static int maxFrameBytes(Table[] prev, Table[] cur, List<Island> islands) {
+        int entities = 0;
+        for (int k = 0; k < KINDS; k++) entities += prev[k].n + cur[k].n;
+        return 4 + 1 + 8 + 8 + 4 + islands.size() * 16 + KINDS * 4 + entities * MAX_OP_BYTES;
+    }
+
+    // Writes a whole frame (length prefix included) describing cur, relative to prev.
+    // A null prev makes it a keyframe, which also carries the world size and islands.
+    static void encode(ByteBuffer out, long tick, Table[] prev, Table[] cur,
+                       int worldWidth, int worldHeight, List<Island> islands) {
+        int start = out.position();
+        out.putInt(0); // length, patched below
+        out.put(prev == null ? KEYFRAME : DELTA).putLong(tick);
+        if (prev == null) {
+            out.putInt(worldWidth).putInt(worldHeight).putInt(islands.size());
+            for (int i = 0; i < islands.size(); i++) {
+                Island island = islands.get(i);
+                // owner in the low byte, development level above it
+                out.putInt(island.x).putInt(island.y).putInt(island.radius).putInt(island.faction.ordinal() | island.level << 8);
+            }
+        }
+        for (int k = 0; k < KINDS; k++) encodeKind(out, prev == null ? EMPTY : prev[k], cur[k]);
+        out.putInt(start, out.position() - start - 4);
+    }
+
+    private static void encodeKind(ByteBuffer out, Table prev, Table cur) {
+        int countAt = out.position();
+        out.putInt(0);
+        int ops = 0;
+        int i = 0, j = 0;
+        while (i < prev.n || j < cur.n) {
+            int pid = i < prev.n ? prev.id[i] : Integer.MAX_VALUE;
+            int cid = j < cur.n ? cur.id[j] : Integer.MAX_VALUE;
+            if (pid < cid) {
+                out.put((byte) OP_DESPAWN);
+                putVarint(out, pid);
+                i++;
+                ops++;
+            } else if (cid < pid) {
+                out.put((byte) OP_SPAWN);
+                putVarint(out, cid);
+                out.putChar((char) cur.x[j]).putChar((char) cur.y[j]).put((byte) cur.a[j]).put((byte) cur.b[j]);
+                j++;
+                ops++;
+            } else {
+                int dx = cur.x[j] - prev.x[i], dy = cur.y[j] - prev.y[i];
+                int flags = 0;
+                if (dx != 0 || dy != 0) {
+                    flags |= dx >= -128 && dx < 128 && dy >= -128 && dy < 128 ? OP_NUDGE : OP_MOVE;
+                }
+                if (cur.b[j] != prev.b[i]) flags |= OP_STATE;
+                if (flags != 0) {
+                    out.put((byte) flags);
+                    putVarint(out, cid);
+                    if ((flags & OP_NUDGE) != 0) out.put((byte) dx).put((byte) dy);
+                    if ((flags & OP_MOVE) != 0) out.putChar((char) cur.x[j]).putChar((char) cur.y[j]);
+                    if ((flags & OP_STATE) != 0) out.put((byte) cur.b[j]);
+                    ops++;
+                }
+                i++;
+                j++;
+            }
+        }
+        out.putInt(countAt, ops);
+    }
+
+    // Applies one kind's section from in to prev, writing the result into out
+    static void decodeKind(ByteBuffer in, Table prev, Table out) throws IOException {
+        out.clear();
+        int ops = in.getInt();
+        int i = 0;
+        for (int k = 0; k < ops; k++) {
+            int flags = in.get() & 0xff;
+            int id = getVarint(in);
+            while (i < prev.n && prev.id[i] < id) out.copy(prev, i++);
+            if ((flags & OP_SPAWN) != 0) {
+                out.add(id, in.getChar(), in.getChar(), in.get(), in.get());
+                continue;
+            }
+            if (i >= prev.n || prev.id[i] != id) throw new IOException("snapshot out of sync at entity " + id);
+            if ((flags & OP_DESPAWN) != 0) {
+                i++;
+                continue;
+            }
+            int x = prev.x[i], y = prev.y[i], b = prev.b[i];
+            if ((flags & OP_NUDGE) != 0) {
+                x += in.get();
+                y += in.get();
+            }
+            if ((flags & OP_MOVE) != 0) {
+                x = in.getChar();
+                y = in.getChar();
+            }
+            if ((flags & OP_STATE) != 0) b = in.get();
+            out.add(id, x, y, prev.a[i], b);
+            i++;
+        }
+        while (i < prev.n) out.copy(prev, i++);
+    }
+
+    private static void putVarint(ByteBuffer out, int v) {
+        while ((v & ~0x7f) != 0) {
+            out.put((byte) ((v & 0x7f) | 0x80));
+            v >>>= 7;
+        }
+        out.put((byte) v);
+    }
+
+    private static int getVarint(ByteBuffer in) {
+        int v = 0, shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            v |= (b & 0x7f) << shift;
+            shift += 7;
+        } while (b < 0);
+        return v;
+    }
+}
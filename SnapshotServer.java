@@ -0,0 +1,205 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+// Server side of spectator streaming. The world stays authoritative on the sim thread;
+// after each update() publish() captures it into compact tables, encodes ONE delta
+// against the previous tick and copies those same bytes to every client. Per-client
+// cost is a memcpy and a non-blocking write, so dozens of viewers on localhost are cheap.
+//
+// Nothing ever blocks the sim: sockets are non-blocking and each client has a bounded
+// outbox. A client that can't keep up skips frames and gets a keyframe once there's
+// room, instead of stalling the tick or growing an unbounded queue.
+public class SnapshotServer implements AutoCloseable {
+    private static final int OUTBOX = 1 << 20; // per-client backlog before frames are skipped
+
+    private static final class Client {
+        final SocketChannel channel;
+        final ByteBuffer outbox = ByteBuffer.allocateDirect(OUTBOX); // write mode between flushes
+        boolean needsKeyframe = true;
+
+        Client(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    private final ServerSocketChannel server;
+    private final List<Client> clients = new ArrayList<>();
+    private SnapshotCodec.Table[] prev = tables(), cur = tables();
+    private final SnapshotCodec.Table[] none = tables(); // what a keyframe is relative to
+    private ByteBuffer delta = ByteBuffer.allocate(64 * 1024), keyframe = ByteBuffer.allocate(64 * 1024);
+    private int nextId = 1;
+    private int islandsVersion; // islands only travel in keyframes; see publish
+
+    // Stats for the console
+    private long framesSent, bytesSent, deltaBytes, encodeNanos, ticks;
+
+    public SnapshotServer(int port) throws IOException {
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress("127.0.0.1", port));
+        server.configureBlocking(false);
+    }
+
+    private static SnapshotCodec.Table[] tables() {
+        SnapshotCodec.Table[] t = new SnapshotCodec.Table[SnapshotCodec.KINDS];
+        for (int k = 0; k < t.length; k++) t[k] = new SnapshotCodec.Table();
+        return t;
+    }
+
+    // Call on the sim thread right after world.update()
+    public void publish(World world) {
+        accept();
+        long start = System.nanoTime();
+        capture(world);
+        List<Island> islands = world.islands();
+        if (islandsVersion != world.economy().version()) {
+            // An island changed owner or level; everyone needs a keyframe to see it
+            islandsVersion = world.economy().version();
+            for (int c = 0; c < clients.size(); c++) clients.get(c).needsKeyframe = true;
+        }
+        if (clients.isEmpty()) {
+            swap(); // keep prev current so the first client's stream starts clean
+            return;
+        }
+        delta = ensure(delta, SnapshotCodec.maxFrameBytes(prev, cur, islands));
+        SnapshotCodec.encode(delta, world.tick(), prev, cur, world.width, world.height, islands);
+        delta.flip();
+        boolean keyframeBuilt = false;
+        encodeNanos += System.nanoTime() - start;
+        deltaBytes += delta.remaining();
+        ticks++;
+
+        for (int c = clients.size() - 1; c >= 0; c--) {
+            Client client = clients.get(c);
+            ByteBuffer frame = delta;
+            if (client.needsKeyframe) {
+                if (!keyframeBuilt) {
+                    keyframe = ensure(keyframe, SnapshotCodec.maxFrameBytes(none, cur, islands));
+                    SnapshotCodec.encode(keyframe, world.tick(), null, cur, world.width, world.height, islands);
+                    keyframe.flip();
+                    keyframeBuilt = true;
+                }
+                frame = keyframe;
+            }
+            // A delta only makes sense on top of the previous frame, so once one is
+            // skipped the client waits for a keyframe that fits
+            if (frame.remaining() <= client.outbox.remaining()) {
+                client.outbox.put(frame.duplicate());
+                client.needsKeyframe = false;
+                framesSent++;
+            } else {
+                client.needsKeyframe = true;
+            }
+            if (!flush(client)) {
+                close(client);
+                clients.remove(c);
+            }
+        }
+
+        swap();
+    }
+
+    private void swap() {
+        SnapshotCodec.Table[] t = prev;
+        prev = cur;
+        cur = t;
+    }
+
+    private void accept() {
+        try {
+            SocketChannel channel;
+            while ((channel = server.accept()) != null) {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                clients.add(new Client(channel));
+            }
+        } catch (IOException e) {
+            System.err.println("snapshot server: accept failed: " + e.getMessage());
+        }
+    }
+
+    // Snapshot the world into cur, handing out ids to anything seen for the first time
+    private void capture(World world) {
+        for (SnapshotCodec.Table t : cur) t.clear();
+        List<Ship> ships = world.ships();
+        for (int i = 0; i < ships.size(); i++) {
+            Ship s = ships.get(i);
+            if (s.netId == 0) s.netId = nextId++;
+            cur[SnapshotCodec.SHIPS].add(s.netId, s.x, s.y, s.faction.ordinal(),
+                    Math.max(0, s.health) * 10 / s.maxHealth()); // tenths, so the client's stock bar fits any class
+        }
+        List<Cannonball> balls = world.cannonballs();
+        for (int i = 0; i < balls.size(); i++) {
+            Cannonball cb = balls.get(i);
+            int frame = cb.frame();
+            if (frame < 0) continue; // finished, waiting for its removal timer
+            if (cb.netId == 0) cb.netId = nextId++;
+            cur[SnapshotCodec.CANNONBALLS].add(cb.netId, cb.x, cb.y, 0, frame);
+        }
+        List<HealthDrop> drops = world.healthDrops();
+        for (int i = 0; i < drops.size(); i++) {
+            HealthDrop d = drops.get(i);
+            if (d.netId == 0) d.netId = nextId++;
+            cur[SnapshotCodec.DROPS].add(d.netId, d.x, d.y, 0, 0);
+        }
+        List<Ship.Shipwreck> wrecks = world.wrecks();
+        for (int i = 0; i < wrecks.size(); i++) {
+            Ship.Shipwreck w = wrecks.get(i);
+            if (w.netId == 0) w.netId = nextId++;
+            cur[SnapshotCodec.WRECKS].add(w.netId, w.x, w.y, 0, 0);
+        }
+        for (SnapshotCodec.Table t : cur) t.sort();
+    }
+
+    private static ByteBuffer ensure(ByteBuffer buf, int size) {
+        if (buf.capacity() < size) return ByteBuffer.allocate(Math.max(size, buf.capacity() * 2));
+        buf.clear();
+        return buf;
+    }
+
+    // Writes as much of the outbox as the socket takes; false if the client is gone
+    private boolean flush(Client client) {
+        client.outbox.flip();
+        try {
+            int n = client.channel.write(client.outbox);
+            bytesSent += n;
+            return true;
+        } catch (IOException e) {
+            return false;
+        } finally {
+            client.outbox.compact();
+        }
+    }
+
+    private static void close(Client client) {
+        try {
+            client.channel.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    public int clients() {
+        return clients.size();
+    }
+
+    // One-line summary since the last call, for the server console
+    public String stats() {
+        String s = String.format("%d clients, %d B/tick delta, %.0f us/tick encode, %d frames / %d KB sent",
+                clients.size(), ticks == 0 ? 0 : deltaBytes / ticks, ticks == 0 ? 0.0 : encodeNanos / 1e3 / ticks,
+                framesSent, bytesSent / 1024);
+        framesSent = bytesSent = deltaBytes = encodeNanos = ticks = 0;
+        return s;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Client client : clients) close(client);
+        clients.clear();
+        server.close();
+    }
+}
@@ -0,0 +1,297 @@
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Whole-game soak test: climbs a ladder of ever bigger worlds and records where the tick
+// stops keeping up. Each rung is a fresh seeded world, stepped exactly like a view does
+// (one update() per tick, plus a software render with --render) for --ticks after a warmup.
+// For each rung it records ticks/s, p50/p99/max tick time, the heap high-water mark and GC time.
+// Every rung is run --repeats times. Tick times from all runs are pooled before taking p50/p99
+// (a single 200-tick run's p99 is its second-worst tick, and swings by 2x from run to run),
+// other figures are the median over the runs, and max is the worst of them. p99 is only
+// compared against a baseline when at least MIN_P99_SAMPLES ticks were pooled.
+// The heap figure is the summed peak usage of the heap memory pools, reset before each run,
+// so it catches the high-water mark between GCs that sampling used memory would miss.
+//
+//   java SoakTest [--ticks=N] [--warmup=N] [--repeats=3] [--upto=SHIPS] [--render] [--seed=N]
+//                 [--out=FILE] [--baseline=FILE] [--tolerance=0.15] [--types=ships.txt]
+//
+// The report is JSON, one rung per line. Save one as a baseline; later runs with --baseline
+// compare rung by rung and fail (exit code 1) when throughput, p99 or heap got worse by more
+// than the tolerance. Baselines are per machine, so none is checked in.
+//
+// Factions come from the Faction enum, so every rung has all of them; the ladder scales
+// islands (each one a home port) and ships per port instead, and grows the ocean to keep
+// the island density of the default 1800x1000 world.
+public class SoakTest {
+    // islands, ships per port: 25, 250, 2.5k, 10k, 25k and 100k ships
+    private static final int[][] LADDER = { {5, 5}, {25, 10}, {100, 25}, {250, 40}, {500, 50}, {1000, 100} };
+    private static final long FRAME_NANOS = 16_000_000L; // a rung whose p99 fits in this still runs at 1x
+    // Changes smaller than these are noise however large they look relatively
+    private static final double MIN_P99_DELTA_MICROS = 500;
+    private static final double MIN_HEAP_DELTA_MB = 16;
+    private static final int MIN_P99_SAMPLES = 500; // fewer pooled ticks and p99 is just the worst few
+
+    static final class Rung {
+        String name;
+        int islands, shipsPerPort, ships, width, height;
+        double ticksPerSecond, p50Micros, p99Micros, maxMicros, heapPeakMB, gcMillis, setupMillis;
+        long gcCount;
+        boolean realtime;
+        long[] samples; // sorted tick times, for pooling repeats; not reported
+    }
+
+    public static void main(String[] args) throws IOException {
+        int ticks = 300, warmup = 50, repeats = 3, upto = 100_000;
+        long seed = 1;
+        boolean render = false;
+        double tolerance = 0.15;
+        Path out = Paths.get("soak-report.json"), baseline = null, typesFile = Paths.get("ships.txt");
+        for (String arg : args) {
+            if (arg.startsWith("--ticks=")) ticks = Integer.parseInt(arg.substring(8));
+            else if (arg.startsWith("--warmup=")) warmup = Integer.parseInt(arg.substring(9));
+            else if (arg.startsWith("--repeats=")) repeats = Math.max(1, Integer.parseInt(arg.substring(10)));
+            else if (arg.startsWith("--upto=")) upto = Integer.parseInt(arg.substring(7));
+            else if (arg.startsWith("--seed=")) seed = Long.parseLong(arg.substring(7));
+            else if (arg.equals("--render")) render = true;
+            else if (arg.startsWith("--out=")) out = Paths.get(arg.substring(6));
+            else if (arg.startsWith("--baseline=")) baseline = Paths.get(arg.substring(11));
+            else if (arg.startsWith("--tolerance=")) tolerance = Double.parseDouble(arg.substring(12));
+            else if (arg.startsWith("--types=")) typesFile = Paths.get(arg.substring(8));
+        }
+
+        System.out.printf("%-8s %7s %8s %11s %9s %9s %9s %8s %7s%n",
+                "rung", "islands", "ships", "world", "ticks/s", "p50 ms", "p99 ms", "heap MB", "gc ms");
+        ShipTypes types = ShipTypes.frozen(typesFile); // read once, so every rung sails the same classes
+        List<Rung> rungs = new ArrayList<>();
+        for (int[] step : LADDER) {
+            if (step[0] * step[1] > upto) break;
+            Rung[] runs = new Rung[repeats];
+            for (int i = 0; i < repeats; i++) runs[i] = run(step[0], step[1], ticks, warmup, seed, render, types);
+            Rung r = median(runs);
+            rungs.add(r);
+            System.out.printf(Locale.ROOT, "%-8s %7d %8d %11s %9.1f %9.2f %9.2f %8.0f %7.0f%s%n",
+                    r.name, r.islands, r.ships, r.width + "x" + r.height, r.ticksPerSecond, r.p50Micros / 1000,
+                    r.p99Micros / 1000, r.heapPeakMB, r.gcMillis, r.realtime ? "" : "  (slower than 1x)");
+        }
+
+        Files.writeString(out, report(rungs, ticks, warmup, repeats, seed, render));
+        System.out.println("Report written to " + out);
+        if (baseline == null) return;
+        String base = Files.readString(baseline);
+        if (!base.contains("\"render\": " + render) || !base.contains("\"ticks\": " + ticks + ",")
+                || !base.contains("\"repeats\": " + repeats + ",")) {
+            System.out.println("Warning: the baseline was recorded with different --render/--ticks/--repeats settings");
+        }
+        if (compare(rungs, parse(base), tolerance) > 0) System.exit(1);
+    }
+
+    static Rung run(int islands, int shipsPerPort, int ticks, int warmup, long seed, boolean render, ShipTypes types)
+            throws IOException {
+        // Keep the default world's island density: 5 islands per 1800x1000
+        double scale = Math.sqrt(islands / 5.0);
+        int width = (int) (GamePanel.WIDTH * scale), height = (int) (GamePanel.HEIGHT * scale);
+
+        System.gc(); // start every rung from the same clean heap
+        long setupStart = System.nanoTime();
+        Rung r = new Rung();
+        int requested = islands * shipsPerPort;
+        r.name = requested >= 1000 ? (requested / 1000.0 + "k").replace(".0k", "k") : Integer.toString(requested);
+        try (World world = new World(width, height, islands, seed, shipsPerPort, types)) {
+            r.setupMillis = (System.nanoTime() - setupStart) / 1e6;
+            r.islands = world.islands().size(); // fewer than asked if the ocean ran out of room
+            r.ships = world.ships().size();
+            SoftwareRenderer renderer = render ? new SoftwareRenderer() : null;
+            Camera camera = render ? new Camera(width, height, GamePanel.WIDTH, GamePanel.HEIGHT) : null;
+            for (int i = 0; i < warmup; i++) frame(world, renderer, camera);
+
+            long gcTime = gcMillis(), gcCount = gcCount();
+            for (MemoryPoolMXBean pool : heapPools()) pool.resetPeakUsage();
+            long[] nanos = new long[ticks];
+            long start = System.nanoTime();
+            for (int i = 0; i < ticks; i++) {
+                long t0 = System.nanoTime();
+                frame(world, renderer, camera);
+                nanos[i] = System.nanoTime() - t0;
+            }
+            long wall = System.nanoTime() - start;
+            long peak = 0;
+            for (MemoryPoolMXBean pool : heapPools()) peak += pool.getPeakUsage().getUsed();
+
+            Arrays.sort(nanos);
+            r.samples = nanos;
+            r.shipsPerPort = shipsPerPort;
+            r.width = width;
+            r.height = height;
+            r.ticksPerSecond = ticks * 1e9 / wall;
+            r.p50Micros = percentile(nanos, 0.5) / 1000.0;
+            r.p99Micros = percentile(nanos, 0.99) / 1000.0;
+            r.maxMicros = nanos[ticks - 1] / 1000.0;
+            r.heapPeakMB = peak / (1024.0 * 1024.0);
+            r.gcMillis = gcMillis() - gcTime;
+            r.gcCount = gcCount() - gcCount;
+            r.realtime = r.p99Micros * 1000 <= FRAME_NANOS;
+        }
+        return r;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, Math.max(0, (int) Math.ceil(sorted.length * p) - 1))];
+    }
+
+    // Repeated runs of one rung as one: percentiles over the pooled tick times, the median
+    // of every other figure, and the worst max
+    static Rung median(Rung[] runs) {
+        Rung r = runs[0];
+        if (runs.length == 1) return r;
+        Rung m = new Rung();
+        m.name = r.name;
+        m.islands = r.islands;
+        m.shipsPerPort = r.shipsPerPort;
+        m.ships = r.ships;
+        m.width = r.width;
+        m.height = r.height;
+        m.ticksPerSecond = median(runs, x -> x.ticksPerSecond);
+        int total = 0;
+        for (Rung x : runs) total += x.samples.length;
+        long[] pooled = new long[total];
+        int at = 0;
+        for (Rung x : runs) {
+            System.arraycopy(x.samples, 0, pooled, at, x.samples.length);
+            at += x.samples.length;
+        }
+        Arrays.sort(pooled);
+        m.samples = pooled;
+        m.p50Micros = percentile(pooled, 0.5) / 1000.0;
+        m.p99Micros = percentile(pooled, 0.99) / 1000.0;
+        m.heapPeakMB = median(runs, x -> x.heapPeakMB);
+        m.gcMillis = median(runs, x -> x.gcMillis);
+        m.setupMillis = median(runs, x -> x.setupMillis);
+        m.gcCount = (long) median(runs, x -> x.gcCount);
+        for (Rung x : runs) m.maxMicros = Math.max(m.maxMicros, x.maxMicros);
+        m.realtime = m.p99Micros * 1000 <= FRAME_NANOS;
+        return m;
+    }
+
+    private static double median(Rung[] runs, ToDoubleFunction<Rung> figure) {
+        double[] v = new double[runs.length];
+        for (int i = 0; i < runs.length; i++) v[i] = figure.applyAsDouble(runs[i]);
+        Arrays.sort(v);
+        int n = v.length;
+        return n % 2 == 1 ? v[n / 2] : (v[n / 2 - 1] + v[n / 2]) / 2;
+    }
+
+    private static List<MemoryPoolMXBean> heapPools() {
+        List<MemoryPoolMXBean> heap = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) heap.add(pool);
+        }
+        return heap;
+    }
+
+    // What a view does per frame at 1x: one tick, and optionally a picture of it
+    private static void frame(World world, SoftwareRenderer renderer, Camera camera) {
+        world.update();
+        if (renderer != null) renderer.render(world, camera);
+    }
+
+    private static long gcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) total += Math.max(0, gc.getCollectionTime());
+        return total;
+    }
+
+    private static long gcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) total += Math.max(0, gc.getCollectionCount());
+        return total;
+    }
+
+    static String report(List<Rung> rungs, int ticks, int warmup, int repeats, long seed, boolean render) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\n");
+        sb.append(String.format(Locale.ROOT, "  \"java\": \"%s\", \"cores\": %d, \"maxHeapMB\": %d,%n",
+                System.getProperty("java.version"), Runtime.getRuntime().availableProcessors(),
+                Runtime.getRuntime().maxMemory() / (1024 * 1024)));
+        sb.append(String.format(Locale.ROOT, "  \"ticks\": %d, \"warmup\": %d, \"repeats\": %d, \"seed\": %d, \"render\": %b,%n",
+                ticks, warmup, repeats, seed, render));
+        sb.append("  \"rungs\": [\n");
+        for (int i = 0; i < rungs.size(); i++) {
+            Rung r = rungs.get(i);
+            sb.append(String.format(Locale.ROOT,
+                    "    {\"name\": \"%s\", \"islands\": %d, \"shipsPerPort\": %d, \"ships\": %d, \"width\": %d, \"height\": %d, "
+                  + "\"setupMillis\": %.1f, \"ticksPerSecond\": %.1f, \"p50Micros\": %.1f, \"p99Micros\": %.1f, \"maxMicros\": %.1f, "
+                  + "\"heapPeakMB\": %.1f, \"gcMillis\": %.0f, \"gcCount\": %d, \"realtime\": %b}%s%n",
+                    r.name, r.islands, r.shipsPerPort, r.ships, r.width, r.height, r.setupMillis, r.ticksPerSecond,
+                    r.p50Micros, r.p99Micros, r.maxMicros, r.heapPeakMB, r.gcMillis, r.gcCount, r.realtime,
+                    i + 1 < rungs.size() ? "," : ""));
+        }
+        sb.append("  ]\n}\n");
+        return sb.toString();
+    }
+
+    // Reads back the rungs of a report this class wrote (one object per line); not a general JSON parser
+    static Map<String, Map<String, String>> parse(String json) {
+        Pattern field = Pattern.compile("\"(\\w+)\":\\s*\"?([^,\"}]*)\"?");
+        Map<String, Map<String, String>> rungs = new HashMap<>();
+        for (String line : json.split("\n")) {
+            if (!line.trim().startsWith("{\"name\"")) continue;
+            Map<String, String> fields = new HashMap<>();
+            Matcher m = field.matcher(line);
+            while (m.find()) fields.put(m.group(1), m.group(2).trim());
+            rungs.put(fields.get("name"), fields);
+        }
+        return rungs;
+    }
+
+    // Prints a line per rung against the baseline; returns how many regressed
+    static int compare(List<Rung> rungs, Map<String, Map<String, String>> baseline, double tolerance) {
+        System.out.printf(Locale.ROOT, "Against the baseline (tolerance %.0f%%):%n", tolerance * 100);
+        int regressions = 0;
+        for (Rung r : rungs) {
+            Map<String, String> b = baseline.get(r.name);
+            if (b == null || Integer.parseInt(b.get("islands")) != r.islands || Integer.parseInt(b.get("ships")) != r.ships) {
+                System.out.printf("  %-6s not in the baseline (or a different world); skipped%n", r.name);
+                continue;
+            }
+            List<String> worse = new ArrayList<>();
+            double tps = Double.parseDouble(b.get("ticksPerSecond"));
+            double p99 = Double.parseDouble(b.get("p99Micros"));
+            double heap = Double.parseDouble(b.get("heapPeakMB"));
+            if (r.ticksPerSecond < tps * (1 - tolerance)) {
+                worse.add(String.format(Locale.ROOT, "ticks/s %.1f -> %.1f", tps, r.ticksPerSecond));
+            }
+            boolean enough = r.samples.length >= MIN_P99_SAMPLES;
+            if (enough && r.p99Micros > p99 * (1 + tolerance) && r.p99Micros - p99 > MIN_P99_DELTA_MICROS) {
+                worse.add(String.format(Locale.ROOT, "p99 %.2f -> %.2f ms", p99 / 1000, r.p99Micros / 1000));
+            }
+            if (r.heapPeakMB > heap * (1 + tolerance) && r.heapPeakMB - heap > MIN_HEAP_DELTA_MB) {
+                worse.add(String.format(Locale.ROOT, "heap %.0f -> %.0f MB", heap, r.heapPeakMB));
+            }
+            if (worse.isEmpty()) {
+                System.out.printf(Locale.ROOT, "  %-6s ok (ticks/s %+.0f%%, p99 %+.0f%%%s)%n", r.name,
+                        (r.ticksPerSecond / tps - 1) * 100, (r.p99Micros / p99 - 1) * 100,
+                        enough ? "" : ", too few ticks to judge p99");
+            } else {
+                System.out.printf("  %-6s REGRESSION: %s%n", r.name, String.join(", ", worse));
+                regressions++;
+            }
+        }
+        System.out.println(regressions == 0 ? "OK" : "FAIL: " + regressions + " rung(s) regressed");
+        return regressions;
+    }
+}
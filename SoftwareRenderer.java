@@ -0,0 +1,380 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+// Optional renderer that rasterizes straight into the int[] behind a BufferedImage.
+// Every entity type is baked once into an ARGB sprite using its normal draw() code;
+// per frame a single-threaded pass turns the visible world into a flat command list
+// (sprite blits and rect fills, in draw order), then the frame is split into
+// horizontal bands that run ocean -> islands -> sprites -> effects in parallel.
+// Bands never share pixels, so no locking; the result is presented with one drawImage.
+public class SoftwareRenderer {
+
+    private static final class Sprite {
+        final int w, h, ox, oy; // size and anchor (world point -> sprite top-left offset)
+        final int[] argb;
+        long drawn;   // island sprites: frame last drawn in, for eviction
+        int revision; // ...and the Island.revision baked in
+
+        Sprite(int w, int h, int ox, int oy, Consumer<Graphics2D> painter) {
+            this.w = w;
+            this.h = h;
+            this.ox = ox;
+            this.oy = oy;
+            BufferedImage img = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = img.createGraphics();
+            painter.accept(g);
+            g.dispose();
+            argb = ((DataBufferInt) img.getRaster().getDataBuffer()).getData();
+        }
+    }
+
+    private static final int ISLAND_PAD_X = 32, ISLAND_PAD_Y = 48; // art reaching past the radius
+    private static final int HEALTH_RED = 0xFFFF0000, HEALTH_GREEN = 0xFF00FF00;
+    private static final int FOG = 0x960A1428; // same as World's fog colour
+    private static final long ISLAND_CACHE_PIXELS = 4L << 20; // 16MB of island sprites
+
+    private final int bands = Runtime.getRuntime().availableProcessors();
+    private BufferedImage image;
+    private int[] pixels;
+    private int width, height;
+
+    // Baked sprites
+    // Island art in access order, least recently drawn first. Capped at ISLAND_CACHE_PIXELS
+    // so zooming out over the whole map doesn't keep every island baked for good; sprites
+    // drawn this frame are never evicted, so a view bigger than the cap can't thrash.
+    private final LinkedHashMap<Island, Sprite> islandSprites = new LinkedHashMap<>(64, 0.75f, true);
+    private long islandPixels; // baked into islandSprites
+    private long frames;
+    private final Sprite[][] shipSprites; // [faction][hull size], baked on first sight
+    private final Sprite[] pirateSprites;
+    private final Sprite[] cannonballSprites = new Sprite[Cannonball.FRAME_COUNT];
+    private final Sprite dropSprite, wreckSprite, crateSprite, richCrateSprite;
+
+    // Per-frame state, written by the command pass and only read by the band workers
+    private int[] colTile = new int[0], rowTile = new int[0];
+    private int[] colHash = new int[0], rowHash = new int[0]; // picks each tile's ocean variant
+    private OceanRenderer ocean;
+    private int[][] oceanPixels = new int[0][];
+    private Sprite[] cmdSprite = new Sprite[256];
+    private int[] cmdX0 = new int[256], cmdY0 = new int[256], cmdX1 = new int[256], cmdY1 = new int[256];
+    private int[] cmdColor = new int[256];
+    private int cmdCount;
+    private double camX, camY, zoom;
+    private final Visibility.RunSink fogRun = (x, y, w, h) -> rect(x, y, w, h, FOG);
+    // Read by the grid callbacks during buildCommands, so the callbacks are allocated once
+    private World frameWorld;
+    private Rectangle frameView;
+    private Ship[] visibleShips = new Ship[64];
+    private int visibleCount;
+    private final LootField.Sink crateCmd = this::crate;
+    private final Consumer<Island> islandCmd = this::island;
+    private final Consumer<Ship.Shipwreck> wreckCmd = this::wreck;
+    private final Consumer<Ship> shipCollect = this::collect;
+    private final Consumer<HealthDrop> dropCmd = this::drop;
+    private final Consumer<Cannonball> ballCmd = this::cannonball;
+    private final java.util.function.IntConsumer debrisCmd = this::debris;
+
+    public SoftwareRenderer() {
+        Faction[] factions = Faction.values();
+        shipSprites = new Sprite[factions.length][33]; // ShipTypes allows sizes 4..32
+        pirateSprites = new Sprite[factions.length];
+        for (Faction f : factions) {
+            Color color = PirateCrowd.colorOf(f);
+            pirateSprites[f.ordinal()] = new Sprite(6, 8, 3, 3, g -> PirateCrowd.drawPirate(g, 3, 3, color));
+        }
+        for (int frame = 0; frame < Cannonball.FRAME_COUNT; frame++) {
+            int fr = frame;
+            cannonballSprites[frame] = new Sprite(48, 32, 24, 16, g -> Cannonball.drawFrame(g, 24, 16, fr));
+        }
+        dropSprite = new Sprite(20, 20, 10, 10, new HealthDrop(10, 10)::draw);
+        crateSprite = new Sprite(10, 8, 5, 4, g -> LootField.draw(g, 5, 4, LootField.FLOTSAM));
+        richCrateSprite = new Sprite(10, 8, 5, 4, g -> LootField.draw(g, 5, 4, LootField.CRATE));
+        // Baked at bob 0; the live bob offset is applied when blitting
+        wreckSprite = new Sprite(32, 32, 16, 20, new Ship.Shipwreck(16, 20, new TimingWheel())::draw);
+    }
+
+    public BufferedImage render(World world, Camera camera) {
+        int w = camera.viewWidth(), h = camera.viewHeight();
+        if (image == null || width != w || height != h) {
+            width = w;
+            height = h;
+            image = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+            pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+            colTile = new int[w];
+            rowTile = new int[h];
+            colHash = new int[w];
+            rowHash = new int[h];
+        }
+        camX = camera.x();
+        camY = camera.y();
+        zoom = camera.zoom();
+        buildCommands(world, camera.visible());
+
+        IntStream.range(0, bands).parallel().forEach(b -> {
+            int y0 = b * height / bands, y1 = (b + 1) * height / bands;
+            oceanBand(y0, y1);
+            commandBand(y0, y1);
+        });
+        return image;
+    }
+
+    // --- Serial pass: ocean lookup tables and the draw command list ---
+
+    private void buildCommands(World world, Rectangle view) {
+        ocean = world.ocean();
+        if (oceanPixels.length != ocean.variants()) oceanPixels = new int[ocean.variants()][];
+        for (int v = 0; v < oceanPixels.length; v++) {
+            BufferedImage tile = ocean.frame(world.tick(), v);
+            oceanPixels[v] = ((DataBufferInt) tile.getRaster().getDataBuffer()).getData();
+        }
+        int t = OceanRenderer.TILE;
+        for (int sx = 0; sx < width; sx++) {
+            int wx = (int) Math.floor(camX + sx / zoom);
+            colTile[sx] = wx < 0 || wx >= world.width ? -1 : Math.floorMod(wx, t);
+            colHash[sx] = OceanRenderer.hashX(Math.floorDiv(wx, t));
+        }
+        for (int sy = 0; sy < height; sy++) {
+            int wy = (int) Math.floor(camY + sy / zoom);
+            rowTile[sy] = wy < 0 || wy >= world.height ? -1 : Math.floorMod(wy, t) * t;
+            rowHash[sy] = OceanRenderer.hashY(Math.floorDiv(wy, t));
+        }
+
+        cmdCount = 0;
+        frames++;
+        // Everything below is culled through the world's grids, so this pass is O(view)
+        frameWorld = world;
+        frameView = view;
+        int x0 = view.x, y0 = view.y, x1 = view.x + view.width, y1 = view.y + view.height;
+        int reach = Island.MAX_RADIUS + ISLAND_PAD_Y;
+        world.islandsIn(x0 - reach, y0 - reach, x1 + reach, y1 + reach, islandCmd);
+        if (islandPixels > ISLAND_CACHE_PIXELS) evictIslands();
+        // Sprites
+        world.wrecksIn(x0 - 24, y0 - 24, x1 + 24, y1 + 24, wreckCmd);
+        visibleCount = 0;
+        world.shipsIn(x0 - 24, y0 - 24, x1 + 24, y1 + 24, shipCollect);
+        // Wakes first so hulls cover them, oldest first so newer segments win
+        for (int age = Ship.WAKE_MAX - 1; age >= 0; age--) {
+            int c = Ship.wakeColor(age).getRGB();
+            for (int i = 0; i < visibleCount; i++) {
+                Ship ship = visibleShips[i];
+                if (age < ship.wakeCount()) rect(ship.wakeX(age) - 1, ship.wakeY(age) + 3, 2, 2, c);
+            }
+        }
+        for (int i = 0; i < visibleCount; i++) {
+            Ship ship = visibleShips[i];
+            sprite(shipSprite(ship.faction, ship.size()), ship.x, ship.y);
+            int barY = ship.y - ship.size() / 2 - 4;
+            rect(ship.x - 8, barY, 16, 2, HEALTH_RED);
+            rect(ship.x - 8, barY, 16 * Math.max(0, ship.health) / ship.maxHealth(), 2, HEALTH_GREEN);
+        }
+        world.loot().forEachIn(x0 - 8, y0 - 8, x1 + 8, y1 + 8, crateCmd);
+        world.healthDropsIn(x0 - 12, y0 - 12, x1 + 12, y1 + 12, dropCmd);
+        for (PirateCrowd.Crew crew : world.pirates().crews()) {
+            if (crew.count == 0 || !PirateCrowd.touches(crew.island, view)) continue;
+            Sprite sprite = pirateSprites[crew.faction().ordinal()];
+            for (int i = 0; i < crew.count; i++) {
+                if (near(view, crew.x[i], crew.y[i], 8)) sprite(sprite, crew.x[i], crew.y[i]);
+            }
+        }
+        // Effects
+        world.cannonballsIn(x0 - 24, y0 - 24, x1 + 24, y1 + 24, ballCmd);
+        world.debrisIn(x0 - 3, y0 - 3, x1, y1, debrisCmd);
+        frameWorld = null;
+        frameView = null;
+        // Fog of war last, over everything
+        if (world.observer() != null) world.fog().hiddenRuns(world.observer(), view, fogRun);
+    }
+
+    private Sprite islandSprite(Island island) {
+        Sprite s = islandSprites.get(island);
+        // Flags and level pips change when an island is claimed or developed; only that
+        // island is baked again, and only once it's on screen
+        if (s != null && s.revision != island.revision) {
+            islandPixels -= s.argb.length;
+            s = null;
+        }
+        if (s == null) {
+            int ox = island.radius + ISLAND_PAD_X, oy = island.radius + ISLAND_PAD_Y;
+            s = new Sprite(ox * 2, oy * 2, ox, oy, g -> {
+                g.translate(ox - island.x, oy - island.y);
+                island.draw(g);
+            });
+            s.revision = island.revision;
+            islandSprites.put(island, s);
+            islandPixels += s.argb.length;
+        }
+        s.drawn = frames;
+        return s;
+    }
+
+    // Drops the least recently drawn island sprites until back under the cap; runs after
+    // the island pass, so whatever is on screen has just been marked drawn
+    private void evictIslands() {
+        Iterator<Sprite> it = islandSprites.values().iterator();
+        while (islandPixels > ISLAND_CACHE_PIXELS && it.hasNext()) {
+            Sprite oldest = it.next();
+            if (oldest.drawn == frames) break; // everything after it is on screen too
+            islandPixels -= oldest.argb.length;
+            it.remove();
+        }
+    }
+
+    // Hull art only; the live health bar is drawn over it as rects
+    private Sprite shipSprite(Faction faction, int size) {
+        Sprite s = shipSprites[faction.ordinal()][size];
+        if (s == null) {
+            // Art spans x-size/2..x+size/2 (at least the 8px flag square) and from the
+            // flag square 12px above the hull down to the cannons
+            int w = Math.max(size, 8) + 8, ox = w / 2, oy = size / 2 + 14;
+            s = new Sprite(w, oy + size / 2 + 2, ox, oy, g -> Ship.drawHull(g, ox, oy, size, faction));
+            shipSprites[faction.ordinal()][size] = s;
+        }
+        return s;
+    }
+
+    private static boolean near(Rectangle view, int x, int y, int margin) {
+        return x + margin >= view.x && x - margin <= view.x + view.width
+            && y + margin >= view.y && y - margin <= view.y + view.height;
+    }
+
+    private void crate(int x, int y, int value) {
+        if (frameWorld.seen(x, y)) sprite(value > LootField.FLOTSAM ? richCrateSprite : crateSprite, x, y);
+    }
+
+    private void island(Island island) {
+        if (near(frameView, island.x, island.y, island.radius + ISLAND_PAD_Y)) sprite(islandSprite(island), island.x, island.y);
+    }
+
+    private void wreck(Ship.Shipwreck wreck) {
+        if (!frameWorld.seen(wreck.x, wreck.y)) return;
+        int bob = (int) (Math.sin((frameWorld.tick() - wreck.born) * 0.08) * 2);
+        sprite(wreckSprite, wreck.x, wreck.y + bob);
+    }
+
+    private void collect(Ship ship) {
+        if (!frameWorld.seen(ship.x, ship.y)) return;
+        if (visibleCount == visibleShips.length) visibleShips = java.util.Arrays.copyOf(visibleShips, visibleCount * 2);
+        visibleShips[visibleCount++] = ship;
+    }
+
+    private void drop(HealthDrop drop) {
+        if (frameWorld.seen(drop.x, drop.y)) sprite(dropSprite, drop.x, drop.y);
+    }
+
+    private void cannonball(Cannonball cb) {
+        int frame = cb.frame();
+        if (frame >= 0 && frameWorld.seen(cb.x, cb.y)) sprite(cannonballSprites[frame], cb.x, cb.y);
+    }
+
+    private void debris(int i) {
+        ParticleBatch debris = frameWorld.debris();
+        rect((int) debris.x[i], (int) debris.y[i], 3, 3, Cannonball.DEBRIS_COLORS[(int) ((i * 31 + frameWorld.tick()) & 7)].getRGB());
+    }
+
+    private void sprite(Sprite s, int wx, int wy) {
+        int i = nextCommand();
+        cmdSprite[i] = s;
+        cmdX0[i] = screenX(wx - s.ox);
+        cmdY0[i] = screenY(wy - s.oy);
+        cmdX1[i] = screenX(wx - s.ox + s.w);
+        cmdY1[i] = screenY(wy - s.oy + s.h);
+    }
+
+    private void rect(int wx, int wy, int w, int h, int argb) {
+        if (w <= 0 || h <= 0) return;
+        int i = nextCommand();
+        cmdSprite[i] = null;
+        cmdX0[i] = screenX(wx);
+        cmdY0[i] = screenY(wy);
+        cmdX1[i] = Math.max(cmdX0[i] + 1, screenX(wx + w));
+        cmdY1[i] = Math.max(cmdY0[i] + 1, screenY(wy + h));
+        cmdColor[i] = argb;
+    }
+
+    private int screenX(int wx) {
+        return (int) Math.floor((wx - camX) * zoom);
+    }
+
+    private int screenY(int wy) {
+        return (int) Math.floor((wy - camY) * zoom);
+    }
+
+    private int nextCommand() {
+        if (cmdCount == cmdSprite.length) {
+            int cap = cmdCount * 2;
+            cmdSprite = java.util.Arrays.copyOf(cmdSprite, cap);
+            cmdX0 = java.util.Arrays.copyOf(cmdX0, cap);
+            cmdY0 = java.util.Arrays.copyOf(cmdY0, cap);
+            cmdX1 = java.util.Arrays.copyOf(cmdX1, cap);
+            cmdY1 = java.util.Arrays.copyOf(cmdY1, cap);
+            cmdColor = java.util.Arrays.copyOf(cmdColor, cap);
+        }
+        return cmdCount++;
+    }
+
+    // --- Parallel pass: everything below only touches rows [y0, y1) ---
+
+    private void oceanBand(int y0, int y1) {
+        for (int sy = y0; sy < y1; sy++) {
+            int row = sy * width;
+            int tileRow = rowTile[sy], hy = rowHash[sy];
+            if (tileRow < 0) {
+                java.util.Arrays.fill(pixels, row, row + width, 0);
+                continue;
+            }
+            for (int sx = 0; sx < width; sx++) {
+                int tx = colTile[sx];
+                pixels[row + sx] = tx < 0 ? 0 : oceanPixels[ocean.variant(colHash[sx], hy)][tileRow + tx];
+            }
+        }
+    }
+
+    private void commandBand(int y0, int y1) {
+        for (int i = 0; i < cmdCount; i++) {
+            int top = Math.max(y0, cmdY0[i]), bottom = Math.min(y1, cmdY1[i]);
+            if (top >= bottom) continue;
+            int left = Math.max(0, cmdX0[i]), right = Math.min(width, cmdX1[i]);
+            if (left >= right) continue;
+            Sprite s = cmdSprite[i];
+            if (s == null) fill(top, bottom, left, right, cmdColor[i]);
+            else blit(s, i, top, bottom, left, right);
+        }
+    }
+
+    private void fill(int top, int bottom, int left, int right, int argb) {
+        for (int sy = top; sy < bottom; sy++) {
+            int row = sy * width;
+            for (int sx = left; sx < right; sx++) pixels[row + sx] = blend(pixels[row + sx], argb);
+        }
+    }
+
+    // Nearest-neighbour scaled blit of sprite command i, clipped to the given screen box
+    private void blit(Sprite s, int i, int top, int bottom, int left, int right) {
+        int dw = cmdX1[i] - cmdX0[i], dh = cmdY1[i] - cmdY0[i];
+        if (dw <= 0 || dh <= 0) return;
+        for (int sy = top; sy < bottom; sy++) {
+            int srcRow = (sy - cmdY0[i]) * s.h / dh * s.w;
+            int row = sy * width;
+            for (int sx = left; sx < right; sx++) {
+                int src = s.argb[srcRow + (sx - cmdX0[i]) * s.w / dw];
+                if ((src >>> 24) != 0) pixels[row + sx] = blend(pixels[row + sx], src);
+            }
+        }
+    }
+
+    private static int blend(int dst, int src) {
+        int a = src >>> 24;
+        if (a == 255) return src;
+        if (a == 0) return dst;
+        int na = 255 - a;
+        int r = (((src >> 16) & 0xFF) * a + ((dst >> 16) & 0xFF) * na) / 255;
+        int g = (((src >> 8) & 0xFF) * a + ((dst >> 8) & 0xFF) * na) / 255;
+        int b = ((src & 0xFF) * a + (dst & 0xFF) * na) / 255;
+        return (r << 16) | (g << 8) | b;
+    }
+}
@@ -0,0 +1,102 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.IntUnaryOperator;
+import java.util.function.ToIntFunction;
+
+// Uniform bucket grid over entity centre points, rebuilt with a counting sort.
+// build() is O(n) with no per-entity allocation once the arrays have grown;
+// forEachIn() only visits the cells overlapping the query rectangle, so callers
+// that pad the query by their largest entity extent get everything that might touch it.
+public class SpatialGrid<T> {
+    private final int cellSize, cols, rows;
+    private final int[] cellStart; // cellStart[c]..cellStart[c+1] indexes into items
+    private Object[] items = new Object[64];
+    private int[] indices = new int[64]; // buildIndices' items
+    private int[] cellOf = new int[64];
+    private int count = 0;
+
+    public SpatialGrid(int worldWidth, int worldHeight, int cellSize) {
+        this.cellSize = cellSize;
+        this.cols = Math.max(1, (worldWidth + cellSize - 1) / cellSize);
+        this.rows = Math.max(1, (worldHeight + cellSize - 1) / cellSize);
+        this.cellStart = new int[cols * rows + 1];
+    }
+
+    public void build(List<? extends T> list, ToIntFunction<? super T> xOf, ToIntFunction<? super T> yOf) {
+        int n = list.size();
+        if (items.length < n) items = new Object[Math.max(n, items.length * 2)];
+        if (cellOf.length < n) cellOf = new int[items.length];
+        for (int i = 0; i < n; i++) {
+            T t = list.get(i);
+            cellOf[i] = cell(xOf.applyAsInt(t), yOf.applyAsInt(t));
+        }
+        count(n);
+        // Scatter; cellStart[c] is used as the write cursor and restored afterwards
+        for (int i = 0; i < n; i++) items[cellStart[cellOf[i]]++] = list.get(i);
+        restore();
+        // Drop references past the end so removed entities can be collected
+        if (count > n) Arrays.fill(items, n, count, null);
+        count = n;
+    }
+
+    // Same for entities kept in parallel arrays (e.g. a ParticleBatch): buckets the
+    // indices 0..n-1, for forEachIndexIn
+    public void buildIndices(int n, IntUnaryOperator xOf, IntUnaryOperator yOf) {
+        if (indices.length < n) indices = new int[Math.max(n, indices.length * 2)];
+        if (cellOf.length < n) cellOf = new int[indices.length];
+        for (int i = 0; i < n; i++) cellOf[i] = cell(xOf.applyAsInt(i), yOf.applyAsInt(i));
+        count(n);
+        for (int i = 0; i < n; i++) indices[cellStart[cellOf[i]]++] = i;
+        restore();
+    }
+
+    // Counting sort, first half: cellStart[c] = where cell c's run starts
+    private void count(int n) {
+        Arrays.fill(cellStart, 0);
+        for (int i = 0; i < n; i++) cellStart[cellOf[i] + 1]++;
+        for (int c = 0; c < cols * rows; c++) cellStart[c + 1] += cellStart[c];
+    }
+
+    // The scatter left cellStart[c] at the end of cell c's run, i.e. the start of c + 1
+    private void restore() {
+        for (int c = cols * rows; c > 0; c--) cellStart[c] = cellStart[c - 1];
+        cellStart[0] = 0;
+    }
+
+    private int cell(int x, int y) {
+        int cx = Math.max(0, Math.min(cols - 1, Math.floorDiv(x, cellSize)));
+        int cy = Math.max(0, Math.min(rows - 1, Math.floorDiv(y, cellSize)));
+        return cy * cols + cx;
+    }
+
+    // Visits every entity whose centre lies in a cell touching [x0,x1) x [y0,y1)
+    @SuppressWarnings("unchecked")
+    public void forEachIn(int x0, int y0, int x1, int y1, Consumer<? super T> action) {
+        int cx0 = Math.max(0, Math.floorDiv(x0, cellSize));
+        int cy0 = Math.max(0, Math.floorDiv(y0, cellSize));
+        int cx1 = Math.min(cols - 1, Math.floorDiv(x1, cellSize));
+        int cy1 = Math.min(rows - 1, Math.floorDiv(y1, cellSize));
+        if (cx0 > cx1 || cy0 > cy1) return;
+        for (int cy = cy0; cy <= cy1; cy++) {
+            int from = cellStart[cy * cols + cx0];
+            int to = cellStart[cy * cols + cx1 + 1]; // cells in a row are contiguous
+            for (int i = from; i < to; i++) action.accept((T) items[i]);
+        }
+    }
+
+    // forEachIn for a grid filled by buildIndices
+    public void forEachIndexIn(int x0, int y0, int x1, int y1, IntConsumer action) {
+        int cx0 = Math.max(0, Math.floorDiv(x0, cellSize));
+        int cy0 = Math.max(0, Math.floorDiv(y0, cellSize));
+        int cx1 = Math.min(cols - 1, Math.floorDiv(x1, cellSize));
+        int cy1 = Math.min(rows - 1, Math.floorDiv(y1, cellSize));
+        if (cx0 > cx1 || cy0 > cy1) return;
+        for (int cy = cy0; cy <= cy1; cy++) {
+            int from = cellStart[cy * cols + cx0];
+            int to = cellStart[cy * cols + cx1 + 1];
+            for (int i = from; i < to; i++) action.accept(indices[i]);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+import java.util.Arrays;
+import java.util.List;
+
+// Ship-to-ship separation with a sweep-and-prune broadphase.
+// Ships are kept in an array sorted by their left edge. Since ships move at most a
+// couple of pixels per tick the order barely changes, so an insertion sort restores it
+// in close to O(n). The sweep then only pairs ships whose x-extents overlap, and each
+// overlapping pair is nudged a pixel apart along its dominant axis. A fleet spawned
+// on one port pixel fans out over a few ticks instead of sailing around as one stack.
+public class SweepAndPrune {
+    private Ship[] order = new Ship[64];
+    private int count = 0;
+    private int parity = 0; // breaks ties for ships sitting exactly on top of each other
+
+    public void add(Ship ship) {
+        if (count == order.length) order = Arrays.copyOf(order, count * 2);
+        order[count++] = ship;
+        ship.swept = true;
+    }
+
+    // O(1); the slot is compacted away on the next separate()
+    public void remove(Ship ship) {
+        ship.swept = false;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    // Re-sorts, sweeps and separates; returns the number of overlapping pairs found
+    public int separate(List<Island> islands) {
+        compactAndSort();
+        int pairs = 0;
+        for (int i = 0; i < count; i++) {
+            Ship a = order[i];
+            int right = a.x + a.size() / 2;
+            for (int j = i + 1; j < count; j++) {
+                Ship b = order[j];
+                if (b.x - b.size() / 2 >= right) break; // sorted: nobody further along can overlap a
+                int dx = b.x - a.x, dy = b.y - a.y;
+                int reach = (a.size() + b.size()) / 2;
+                if (dx * dx + dy * dy >= reach * reach) continue;
+                pairs++;
+                push(a, b, dx, dy, islands);
+            }
+        }
+        parity ^= 1;
+        return pairs;
+    }
+
+    private void push(Ship a, Ship b, int dx, int dy, List<Island> islands) {
+        if (dx == 0 && dy == 0) {
+            // Exactly stacked: split along an axis that alternates so stacks spread both ways
+            if (parity == 0) dx = 1;
+            else dy = 1;
+        }
+        if (Math.abs(dx) >= Math.abs(dy)) {
+            int s = Integer.signum(dx);
+            a.nudge(-s, 0, islands);
+            b.nudge(s, 0, islands);
+        } else {
+            int s = Integer.signum(dy);
+            a.nudge(0, -s, islands);
+            b.nudge(0, s, islands);
+        }
+    }
+
+    // Drops removed ships, then insertion-sorts by left edge (nearly sorted already)
+    private void compactAndSort() {
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            if (order[i].swept) order[n++] = order[i];
+        }
+        Arrays.fill(order, n, count, null);
+        count = n;
+        for (int i = 1; i < count; i++) {
+            Ship s = order[i];
+            int key = s.x - s.size() / 2;
+            int j = i - 1;
+            while (j >= 0 && order[j].x - order[j].size() / 2 > key) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = s;
+        }
+    }
+}
@@ -1,29 +1,27 @@
+import java.util.Random;
+
 class Swell {
     int x, y;
     int width = 6, height = 2;
-    int life = 0;
     int maxLife;
     double phaseOffset;
 
-    public Swell(int panelWidth, int panelHeight) {
-        reset(panelWidth, panelHeight);
+    // Placed wholly inside a w x h area, from rand so a seeded ocean comes out the same
+    public Swell(int w, int h, Random rand) {
+        reset(w, h, rand);
     }
 
-    public void reset(int w, int h) {
-        x = (int)(Math.random() * w);
-        y = (int)(Math.random() * h);
-        maxLife = 100 + (int)(Math.random() * 100); // lifespan in frames
-        life = 0;
-        phaseOffset = Math.random() * Math.PI * 2;
+    public void reset(int w, int h, Random rand) {
+        x = rand.nextInt(w - width + 1);
+        y = rand.nextInt(h - height + 1);
+        maxLife = 100 + rand.nextInt(100); // lifespan in frames
+        phaseOffset = rand.nextDouble() * Math.PI * 2;
     }
 
-    public float getAlpha() {
-        float t = (float) life / maxLife;
+    // age: frames since the swell appeared
+    public float getAlpha(long age) {
+        float t = (float) age / maxLife;
         return (float) (Math.sin(t * Math.PI) * 0.8); // smooth fade in/out
     }
 
-    public void update(int w, int h) {
-        life++;
-        if (life > maxLife) reset(w, h);
-    }
 }
@@ -0,0 +1,118 @@
+import java.awt.*;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+
+// Fast-forward control shared by the views: 1x, 10x, 100x, or as fast as the machine goes.
+// A view hands over the wall time since its last frame plus how long it can spare for
+// simulation; step() runs speed x that many fixed ticks but stops at the budget, so the
+// UI keeps getting frames and input however heavy the world gets. Time it couldn't
+// afford is dropped rather than owed, which is what throttles a warp the CPU can't keep up.
+public class TimeWarp {
+    public static final long TICK_NANOS = 16_000_000L; // one tick at 1x, as the Swing timer always did
+    private static final int MAX_CATCH_UP = 5;           // frames' worth of ticks we'll catch up on
+    private static final Font HUD_FONT = new Font(Font.MONOSPACED, Font.BOLD, 13);
+    private static final Color HUD_BACKGROUND = new Color(0, 0, 0, 150);
+
+    public enum Speed {
+        X1(1, "1x"), X10(10, "10x"), X100(100, "100x"), MAX(0, "max");
+
+        final int factor; // 0 = unbounded
+        final String label;
+
+        Speed(int factor, String label) {
+            this.factor = factor;
+            this.label = label;
+        }
+    }
+
+    // Set from the input thread; step() runs on the view's sim thread and notices a change
+    // itself, so owed and everything below it are only ever touched by that one thread
+    private volatile Speed speed = Speed.X1;
+    private Speed stepping = Speed.X1; // the speed step() last ran at
+    private long owed; // 1x nanoseconds not yet simulated
+
+    // Achieved rate over the last second, for the HUD
+    private long windowStart = System.nanoTime();
+    private int windowTicks;
+    private volatile int ticksPerSecond;
+
+    public Speed speed() {
+        return speed;
+    }
+
+    public void setSpeed(Speed speed) {
+        this.speed = speed;
+    }
+
+    public boolean warping() {
+        return speed != Speed.X1;
+    }
+
+    public int ticksPerSecond() {
+        return ticksPerSecond;
+    }
+
+    // Runs the ticks due for elapsedNanos of wall time; returns how many ran
+    public int step(World world, long elapsedNanos, long budgetNanos) {
+        Speed s = speed;
+        if (s != stepping) {
+            stepping = s;
+            owed = 0; // a new speed starts from now, not from time owed at the old one
+        }
+        world.setEffects(s == Speed.X1); // nobody can follow debris at 10x; skip spawning it
+        long owedTicks = Long.MAX_VALUE, due = Long.MAX_VALUE;
+        if (s != Speed.MAX) {
+            owed += elapsedNanos;
+            owedTicks = owed * s.factor / TICK_NANOS;
+            due = Math.min(owedTicks, (long) MAX_CATCH_UP * s.factor);
+        }
+
+        long start = System.nanoTime();
+        int ran = 0;
+        while (ran < due) {
+            world.update();
+            ran++;
+            if (System.nanoTime() - start >= budgetNanos) break;
+        }
+        if (s != Speed.MAX) {
+            // Keep the fraction of a tick we haven't reached yet; drop anything we couldn't afford
+            owed = ran < owedTicks ? 0 : owed - ran * TICK_NANOS / s.factor;
+        }
+
+        windowTicks += ran;
+        long now = System.nanoTime();
+        if (now - windowStart >= 1_000_000_000L) {
+            ticksPerSecond = (int) (windowTicks * 1_000_000_000L / (now - windowStart));
+            windowTicks = 0;
+            windowStart = now;
+        }
+        return ran;
+    }
+
+    // Number keys 1-4 pick the speed
+    public void attach(Component c) {
+        c.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                switch (e.getKeyCode()) {
+                    case KeyEvent.VK_1 -> setSpeed(Speed.X1);
+                    case KeyEvent.VK_2 -> setSpeed(Speed.X10);
+                    case KeyEvent.VK_3 -> setSpeed(Speed.X100);
+                    case KeyEvent.VK_4 -> setSpeed(Speed.MAX);
+                    default -> { }
+                }
+            }
+        });
+    }
+
+    // Speed and achieved rate in the top-left corner, in screen space
+    public void drawHud(Graphics g, int fps) {
+        String text = String.format("%s  %d ticks/s  %d fps  [1-4: speed]", speed.label, ticksPerSecond, fps);
+        g.setFont(HUD_FONT);
+        FontMetrics fm = g.getFontMetrics();
+        g.setColor(HUD_BACKGROUND);
+        g.fillRect(8, 8, fm.stringWidth(text) + 12, fm.getHeight() + 6);
+        g.setColor(Color.WHITE);
+        g.drawString(text, 14, 11 + fm.getAscent());
+    }
+}
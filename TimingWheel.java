@@ -0,0 +1,126 @@
+// Hierarchical timing wheel for anything that happens "N ticks from now":
+// entity lifetimes, effect timers, respawn delays, cooldowns, build timers...
+// Four levels of 64 slots cover ~16.7M ticks (about three days at 60 ticks/s).
+// Scheduling and cancelling are O(1); advancing only touches timers that are due
+// plus the occasional cascade of one slot into the level below, so the cost of
+// expiry is O(expired) instead of counting down every live entity every tick.
+public class TimingWheel {
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_DELAY = (1L << (BITS * LEVELS)) - 1;
+
+    public static final class Timeout {
+        private final Runnable action;
+        private long deadline;
+        private Timeout prev, next;
+        private int level = -1, slot; // level -1 = not in the wheel
+        private TimingWheel wheel;
+
+        private Timeout(TimingWheel wheel, long deadline, Runnable action) {
+            this.wheel = wheel;
+            this.deadline = deadline;
+            this.action = action;
+        }
+
+        // Safe to call more than once, and after the timeout has fired
+        public void cancel() {
+            if (wheel != null && level >= 0) wheel.unlink(this);
+            wheel = null;
+        }
+
+        public boolean isPending() {
+            return wheel != null;
+        }
+
+        public long deadline() {
+            return deadline;
+        }
+    }
+
+    private final Timeout[][] slots = new Timeout[LEVELS][SLOTS];
+    private long now = 0;
+    private int pending = 0;
+
+    public long now() {
+        return now;
+    }
+
+    public int pending() {
+        return pending;
+    }
+
+    // Runs action on the tick that is delay ticks from now (minimum 1)
+    public Timeout schedule(long delay, Runnable action) {
+        Timeout t = new Timeout(this, now + Math.max(1, delay), action);
+        place(t);
+        pending++;
+        return t;
+    }
+
+    // Moves the clock one tick forward and runs everything that is due; returns how many ran
+    public int advance() {
+        now++;
+        int fired = 0;
+        // Cascade from the top down so timers can fall through several levels at once
+        for (int level = LEVELS - 1; level > 0; level--) {
+            if ((now & ((1L << (BITS * level)) - 1)) == 0) {
+                cascade(level, (int) (now >>> (BITS * level)) & MASK);
+            }
+        }
+
+        int idx = (int) now & MASK;
+        Timeout t = slots[0][idx];
+        slots[0][idx] = null;
+        while (t != null) {
+            Timeout next = t.next;
+            t.prev = t.next = null;
+            t.level = -1;
+            if (t.deadline > now) {
+                place(t); // clamped past the top level, not due yet
+            } else {
+                t.wheel = null;
+                pending--;
+                fired++;
+                t.action.run();
+            }
+            t = next;
+        }
+        return fired;
+    }
+
+    private void cascade(int level, int idx) {
+        Timeout t = slots[level][idx];
+        slots[level][idx] = null;
+        while (t != null) {
+            Timeout next = t.next;
+            t.prev = t.next = null;
+            t.level = -1;
+            place(t);
+            t = next;
+        }
+    }
+
+    private void place(Timeout t) {
+        long delta = Math.min(t.deadline - now, MAX_DELAY);
+        long target = now + delta;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << (BITS * (level + 1)))) level++;
+        int idx = (int) (target >>> (BITS * level)) & MASK;
+        t.level = level;
+        t.slot = idx;
+        t.next = slots[level][idx];
+        if (t.next != null) t.next.prev = t;
+        slots[level][idx] = t;
+    }
+
+    private void unlink(Timeout t) {
+        if (t.prev != null) t.prev.next = t.next;
+        else slots[t.level][t.slot] = t.next;
+        if (t.next != null) t.next.prev = t.prev;
+        t.prev = t.next = null;
+        t.level = -1;
+        pending--;
+    }
+}
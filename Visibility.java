@@ -0,0 +1,119 @@
+import java.awt.Rectangle;
+import java.util.List;
+
+// Per-faction fog of war on InfluenceMap's grid (same cells, so the two can be read
+// together). Every ship and island stamps a disc of cells its faction can see;
+// a cell's count is how many stamps cover it, and the faction's bitset has the cell's
+// bit set while that count is above zero. Like InfluenceMap, a ship only restamps when
+// it enters a new cell, and an island only when it changes hands, so keeping the fog
+// current costs O(ships that changed cell), never a pass over the grid.
+public class Visibility {
+    public static final int CELL = InfluenceMap.CELL;
+    // Cells; covers the longest engagement range (ShipTypes.MAX_SIGHT) from anywhere in a cell,
+    // so a ship never skips an enemy its class's sight says it can reach
+    static final int SHIP_SIGHT = (int) Math.ceil((ShipTypes.MAX_SIGHT + CELL * Math.sqrt(2)) / CELL);
+    static final int ISLAND_SIGHT = SHIP_SIGHT + 1; // lookouts on the shore see a bit further
+
+    // Receives fog as runs of hidden cells along a row, in world coordinates
+    public interface RunSink {
+        void run(int x, int y, int w, int h);
+    }
+
+    final int cols, rows;
+    private final long[][] bits;         // [faction][cell / 64]
+    private final short[][] count;       // [faction][cell] stamps covering the cell
+    private final Faction[] islandOwner; // who each island's stamp currently counts for
+
+    public Visibility(int worldWidth, int worldHeight, List<Island> islands) {
+        cols = (worldWidth + CELL - 1) / CELL;
+        rows = (worldHeight + CELL - 1) / CELL;
+        int factions = Faction.values().length;
+        bits = new long[factions][(cols * rows + 63) >>> 6];
+        count = new short[factions][cols * rows];
+        islandOwner = new Faction[islands.size()];
+        for (int i = 0; i < islands.size(); i++) {
+            Island island = islands.get(i);
+            islandOwner[i] = island.faction;
+            stamp(island.faction, cellOf(island.x, island.y), ISLAND_SIGHT, 1);
+        }
+    }
+
+    int cellOf(int x, int y) {
+        int cx = Math.max(0, Math.min(cols - 1, x / CELL));
+        int cy = Math.max(0, Math.min(rows - 1, y / CELL));
+        return cy * cols + cx;
+    }
+
+    // Call after a ship moved; does nothing unless it entered a new cell
+    public void track(Ship ship) {
+        int cell = cellOf(ship.x, ship.y);
+        if (cell == ship.visionCell) return;
+        if (ship.visionCell >= 0) stamp(ship.faction, ship.visionCell, SHIP_SIGHT, -1);
+        stamp(ship.faction, cell, SHIP_SIGHT, 1);
+        ship.visionCell = cell;
+    }
+
+    // Call when a ship dies or otherwise leaves the simulation
+    public void remove(Ship ship) {
+        if (ship.visionCell < 0) return;
+        stamp(ship.faction, ship.visionCell, SHIP_SIGHT, -1);
+        ship.visionCell = -1;
+    }
+
+    // Call when island index changed hands (see Economy)
+    public void claimed(int index, Island island) {
+        if (islandOwner[index] == island.faction) return;
+        int cell = cellOf(island.x, island.y);
+        stamp(islandOwner[index], cell, ISLAND_SIGHT, -1);
+        stamp(island.faction, cell, ISLAND_SIGHT, 1);
+        islandOwner[index] = island.faction;
+    }
+
+    private void stamp(Faction faction, int cell, int radius, int sign) {
+        int f = faction.ordinal();
+        short[] c = count[f];
+        long[] b = bits[f];
+        int cx = cell % cols, cy = cell / cols;
+        int r2 = radius * radius + radius; // rounder disc than r*r
+        for (int dy = -radius; dy <= radius; dy++) {
+            int y = cy + dy;
+            if (y < 0 || y >= rows) continue;
+            for (int dx = -radius; dx <= radius; dx++) {
+                int x = cx + dx;
+                if (x < 0 || x >= cols || dx * dx + dy * dy > r2) continue;
+                int i = y * cols + x;
+                // Bits only flip when a count crosses zero
+                if (sign > 0 && c[i]++ == 0) b[i >>> 6] |= 1L << i;
+                else if (sign < 0 && --c[i] == 0) b[i >>> 6] &= ~(1L << i);
+            }
+        }
+    }
+
+    public boolean visible(Faction faction, int x, int y) {
+        int i = cellOf(x, y);
+        return (bits[faction.ordinal()][i >>> 6] & 1L << i) != 0;
+    }
+
+    boolean visibleCell(Faction faction, int cell) {
+        return (bits[faction.ordinal()][cell >>> 6] & 1L << cell) != 0;
+    }
+
+    // Cells the faction can't see inside view, merged into runs along each row
+    public void hiddenRuns(Faction faction, Rectangle view, RunSink sink) {
+        long[] b = bits[faction.ordinal()];
+        int cx0 = Math.max(0, view.x / CELL), cx1 = Math.min(cols - 1, (view.x + view.width) / CELL);
+        int cy0 = Math.max(0, view.y / CELL), cy1 = Math.min(rows - 1, (view.y + view.height) / CELL);
+        for (int cy = cy0; cy <= cy1; cy++) {
+            int start = -1;
+            for (int cx = cx0; cx <= cx1 + 1; cx++) {
+                int i = cy * cols + cx;
+                boolean hidden = cx <= cx1 && (b[i >>> 6] & 1L << i) == 0;
+                if (hidden && start < 0) start = cx;
+                else if (!hidden && start >= 0) {
+                    sink.run(start * CELL, cy * CELL, (cx - start) * CELL, CELL);
+                    start = -1;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,579 @@
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// The simulation itself: every entity list plus one fixed-step update().
+// Kept free of Swing so it can be driven by the passive GamePanel, the active
+// GameCanvas render loop, or headless tools alike. render() draws whatever part
+// of the world a Camera is looking at, culled through spatial grids.
+public class World implements AutoCloseable {
+    private static final int ISLAND_MARGIN = 128; // island art + port flag reach past the centre
+    private static final int SHIP_MARGIN = 32;    // hull, flag and health bar
+    private static final int REGION_CHECK = 32;   // ticks between region streaming passes
+    // Two of the largest islands, the 32px buffer, and slack for snapping centres to 8px
+    private static final int ISLAND_SPACING = 2 * Island.MAX_RADIUS + 32 + 12;
+
+    public final int width, height;
+    private final Random rand; // every random choice in the sim comes from here, so a seed replays a match
+    private final int islandsRequested;
+    private final long generationNanos;
+    private List<Ship> ships = new ArrayList<>();
+    private List<Cannonball> cannonballs = new ArrayList<>();
+    private List<Island> islands = new ArrayList<>();
+    private List<Ship.Shipwreck> wrecks = new ArrayList<>();
+    private List<Ship.Rowboat> rowboats = new ArrayList<>();
+    private List<HealthDrop> healthDrops = new ArrayList<>();
+    private final PirateCrowd pirates; // shares the world's RNG
+    private final ParticleBatch debris = new ParticleBatch(256, Cannonball.DEBRIS_GRAVITY);
+    private final TimingWheel timers = new TimingWheel();
+    private final BattleStats stats = new BattleStats();
+    private final ShipTypes types; // class rows; immutable snapshots, so worlds may share one
+    private int typesVersion; // table version our ships point into
+    private final Economy economy;
+    private final InfluenceMap influence;
+    private final Visibility fog;
+    private final CaptainPlanner captains;
+    private final SpatialGrid<Island> islandGrid;
+    private final SpatialGrid<Ship> shipGrid; // rebuilt at the end of every update
+    private final RegionStore regions;
+    private final SweepAndPrune separation = new SweepAndPrune();
+    private final LootField loot;
+    // Loot callbacks read these instead of capturing, so they're allocated once
+    private int probeX, probeY;
+    private boolean probeDry;
+    private final java.util.function.Consumer<Island> dryProbe = island -> {
+        int dx = probeX - island.x, dy = probeY - island.y, r = island.radius + 12;
+        if (dx * dx + dy * dy < r * r) probeDry = true;
+    };
+    private final LootField.Water water = this::openWater;
+    private Graphics lootGraphics;
+    private final LootField.Sink lootDraw = (x, y, value) -> {
+        if (seen(x, y)) LootField.draw(lootGraphics, x, y, value);
+    };
+    private DirtyRegions lootBounds;
+    private final LootField.Sink lootBound = (x, y, value) -> lootBounds.addWorld(x - 5, y - 4, 10, 8);
+    private final Rectangle lootView = new Rectangle();
+    private final List<Ship> shipsToRemove = new ArrayList<>(); // update() scratch, cleared every tick
+    private final List<Ship> shipsToAdd = new ArrayList<>();
+    private final List<Ship> ghosts = new ArrayList<>(); // other shards' ships near our strip: targets, never simulated
+    private final List<Ship> shipsAndGhosts = new ArrayList<>();
+    private Ship[] visibleShips = new Ship[64]; // render scratch, reused every frame
+    private int visibleCount;
+    // Render-side grids over the short-lived entities, built on first render so headless
+    // worlds skip them and rebuilt once per tick drawn, so each dirty rectangle only
+    // visits what's near it instead of every cannonball, wreck and particle
+    private SpatialGrid<Cannonball> ballGrid;
+    private SpatialGrid<Ship.Shipwreck> wreckGrid;
+    private SpatialGrid<HealthDrop> dropGrid;
+    private SpatialGrid<Object> debrisGrid; // indices into debris
+    private long gridsTick = -1;
+    private Graphics dynamicGraphics; // read by the draw callbacks below, so they're allocated once
+    private final java.util.function.Consumer<Cannonball> ballDraw = cb -> {
+        if (seen(cb.x, cb.y)) cb.draw(dynamicGraphics);
+    };
+    private final java.util.function.Consumer<Ship.Shipwreck> wreckDraw = wreck -> {
+        if (seen(wreck.x, wreck.y)) wreck.draw(dynamicGraphics);
+    };
+    private final java.util.function.Consumer<HealthDrop> dropDraw = drop -> {
+        if (seen(drop.x, drop.y)) drop.draw(dynamicGraphics);
+    };
+    private final java.util.function.IntConsumer debrisDraw = i -> Cannonball.drawDebris(dynamicGraphics, debris, i, timers.now());
+    private final java.util.function.IntUnaryOperator debrisX = i -> (int) debris.x[i], debrisY = i -> (int) debris.y[i];
+
+    private boolean effects = true; // debris particles; switched off while time-warping
+    private volatile Faction observer; // whose fog of war rendering shows; null = see everything (set from the EDT)
+    private static final Color FOG = new Color(10, 20, 40, 150);
+    private final int shipsPerFaction; // Number of ships to spawn per faction
+    private OceanRenderer ocean; // baked on first render so headless worlds skip it
+
+    // Default island count keeps the density of the original 1800x1000 map with 5 islands
+    public World(int width, int height) {
+        this(width, height, defaultIslandCount(width, height));
+    }
+
+    static int defaultIslandCount(int width, int height) {
+        return Math.max(5, (int) (5L * width * height / (1800L * 1000L)));
+    }
+
+    public World(int width, int height, int islandCount) {
+        this(width, height, islandCount, null, 0, width, new Random(), 5, ShipTypes.shared());
+    }
+
+    // A reproducible match for batch runs (see MonteCarlo); pair with setPlannerBudget(0)
+    // and a ShipTypes.frozen table, so a ships.txt edit mid-batch can't change the result
+    public World(int width, int height, int islandCount, long seed, int shipsPerFaction, ShipTypes types) {
+        this(width, height, islandCount, null, 0, width, new Random(seed), shipsPerFaction, types);
+    }
+
+    // One shard of a bigger ocean (see ShardWorker): the island layout comes from the
+    // coordinator, and only fleets whose home port lies in [ownX0, ownX1) start here
+    World(int width, int height, List<Island> layout, int ownX0, int ownX1) {
+        this(width, height, layout.size(), layout, ownX0, ownX1, new Random(), 5, ShipTypes.shared());
+    }
+
+    private World(int width, int height, int islandCount, List<Island> layout, int ownX0, int ownX1,
+                  Random rand, int shipsPerFaction, ShipTypes types) {
+        this.width = width;
+        this.height = height;
+        this.rand = rand;
+        this.types = types;
+        this.shipsPerFaction = shipsPerFaction;
+        pirates = new PirateCrowd(rand);
+        influence = new InfluenceMap(width, height);
+        islandGrid = new SpatialGrid<>(width, height, 256);
+        shipGrid = new SpatialGrid<>(width, height, 128);
+        regions = new RegionStore(width, height, healthDrops, wrecks, pirates, timers);
+        loot = new LootField(width, height, ownX0, ownX1, 3); // 3 crates per 512px region
+
+        long start = System.nanoTime();
+        islandsRequested = islandCount;
+        islands.addAll(layout != null ? layout : generateIslands(width, height, islandCount, rand));
+        for (int i = 0; i < islands.size(); i++) islands.get(i).index = i;
+        for (Island island : islands) pirates.spawn(island, 3); // 3 pirates per island
+
+        // Create ships
+        for (Island island : islands) {
+            Point port = island.getPortLocation();
+            if (port.x < ownX0 || port.x >= ownX1) continue; // another shard's fleet
+            // Clamp spawn to be at least 16px from the border
+            int safeX = Math.max(16, Math.min(width - 16, port.x));
+            int safeY = Math.max(16, Math.min(height - 16, port.y));
+            for (int j = 0; j < shipsPerFaction; j++) {
+                ships.add(new Ship(safeX, safeY, islands, island.faction, true, width, height, rand) // true = exact spawn
+                        .outfit(types.pick(rand), (byte) 0));
+            }
+        }
+        for (Ship ship : ships) separation.add(ship);
+        typesVersion = types.version();
+        islandGrid.build(islands, i -> i.x, i -> i.y);
+        shipGrid.build(ships, s -> s.x, s -> s.y);
+        fog = new Visibility(width, height, islands);
+        captains = new CaptainPlanner(influence, fog, 200); // 200us per tick
+        economy = new Economy(islands, influence, fog, islandGrid, stats, ownX0, ownX1);
+        generationNanos = System.nanoTime() - start;
+    }
+
+    // Islands without overlap: centres come from a Poisson-disk sample spaced at least for
+    // the largest islands, so they can't collide. The spacing is stretched so the sample
+    // comes out only a little bigger than the request (Bridson packs about 0.62 points per
+    // spacing squared); sampling then costs O(count) rather than O(map area), and the
+    // shuffled sites spread the islands over the whole map.
+    // If the map is too small for the request we get fewer islands, and say so.
+    static List<Island> generateIslands(int width, int height, int count, Random rand) {
+        List<Island> islands = new ArrayList<>();
+        if (count <= 0) return islands;
+        int edge = Island.MAX_RADIUS;
+        double area = (double) (width - 2 * edge) * (height - 2 * edge);
+        double spacing = Math.max(ISLAND_SPACING, Math.sqrt(0.62 * area / (1.25 * count))); // ~1.25x count sites
+        List<Point> sites = PoissonDisk.sample(edge, edge, width - edge, height - edge, spacing, rand);
+        Faction[] factions = Faction.values();
+        for (int i = 0; i < count && i < sites.size(); i++) {
+            Point site = sites.get(i);
+            islands.add(new Island(site.x / 8 * 8, site.y / 8 * 8, Island.randomRadius(rand),
+                    factions[i % factions.length], rand)); // Pass faction
+        }
+        return islands;
+    }
+
+    public String generationReport() {
+        return String.format("Generated %d/%d islands, %d ships, %d factions on %dx%d in %.1f ms",
+                islands.size(), islandsRequested, ships.size(), Math.min(islands.size(), Faction.values().length),
+                width, height, generationNanos / 1e6);
+    }
+
+    public long tick() {
+        return timers.now();
+    }
+
+    // Steady-state ticks should allocate nothing; AllocationBudget keeps an eye on that.
+    // Hot loops here index their lists instead of using iterators for the same reason.
+    public void update() {
+        shipsToRemove.clear();
+        shipsToAdd.clear();
+
+        // Fire everything that is due this tick; expiry timers only mark their entity, and
+        // one sweep then drops all of them, instead of a List.remove search per expiry
+        if (timers.advance() > 0) sweepExpired();
+
+        // ships.txt changed: move every ship onto its class's new row
+        if (types.poll() != typesVersion) refit();
+
+        // Ships pick targets among ghosts too, so fights carry on across shard borders
+        List<Ship> targets = ships;
+        if (!ghosts.isEmpty()) {
+            shipsAndGhosts.clear();
+            shipsAndGhosts.addAll(ships);
+            shipsAndGhosts.addAll(ghosts);
+            targets = shipsAndGhosts;
+        }
+
+        for (int i = 0; i < ships.size(); i++) {
+            Ship ship = ships.get(i);
+            int balls = cannonballs.size();
+            ship.update(targets, cannonballs, islands, healthDrops, fog);
+            if (cannonballs.size() > balls) stats.add(BattleStats.Metric.SHOTS, ship.faction, cannonballs.size() - balls);
+            if (ship.attacking()) stats.add(BattleStats.Metric.ATTACK_TICKS, ship.faction);
+            influence.track(ship);
+            fog.track(ship);
+            if (ship.health <= 0) {
+                stats.add(BattleStats.Metric.LOSSES, ship.faction);
+                if (ship.lastHitBy != null) stats.add(BattleStats.Metric.KILLS, ship.lastHitBy);
+                influence.remove(ship);
+                fog.remove(ship);
+                separation.remove(ship);
+                spawnHealthDrop(ship.x, ship.y, Economy.BOUNTY);
+                loot.spill(ship.x, ship.y, ship.cargo, timers.now(), rand); // the hold floats off in crates
+                // Find the faction's island
+                Island base = null;
+                for (Island island : islands) {
+                    if (island.faction == ship.faction) {
+                        base = island;
+                        break;
+                    }
+                }
+                if (base != null) {
+                    Point port = base.getPortLocation();
+                    int safeX = Math.max(16, Math.min(width - 16, port.x));
+                    int safeY = Math.max(16, Math.min(height - 16, port.y));
+                    // A developed home port turns out better-built ships
+                    shipsToAdd.add(new Ship(safeX, safeY, islands, ship.faction, true, width, height, rand)
+                            .outfit(types.pick(rand), ShipTypes.upgrades(base.level, base.level)));
+                    stats.add(BattleStats.Metric.RESPAWNS, ship.faction);
+                }
+                shipsToRemove.add(ship);
+            }
+        }
+        if (!shipsToRemove.isEmpty()) ships.removeAll(shipsToRemove);
+        ships.addAll(shipsToAdd); // <-- Add new ships after removal
+        for (int i = 0; i < shipsToAdd.size(); i++) separation.add(shipsToAdd.get(i));
+
+        // Push overlapping ships apart so fleets don't sail through or stack on each other
+        separation.separate(islands);
+
+        // Strategic planning gets a fixed slice of the tick; orders land on ships for next update
+        captains.step(ships, islands);
+
+        for (int i = 0; i < cannonballs.size(); i++) {
+            Cannonball cb = cannonballs.get(i);
+            boolean landed = cb.hit;
+            cb.move(effects ? debris : null);
+            // Book the removal once, when the ball lands, instead of polling every tick
+            if (!landed && cb.hit) {
+                if (cb.exploded) stats.add(BattleStats.Metric.HITS, cb.shooter);
+                timers.schedule(cb.ticksUntilDone(), cb);
+            }
+        }
+        debris.step();
+
+        // Ship collects health drop
+        for (int d = healthDrops.size() - 1; d >= 0; d--) {
+            HealthDrop drop = healthDrops.get(d);
+            boolean collected = false;
+            for (int i = 0; i < ships.size(); i++) {
+                Ship ship = ships.get(i);
+                int dx = ship.x - drop.x;
+                int dy = ship.y - drop.y;
+                int distSq = dx * dx + dy * dy;
+                int minDist = ship.size()/2 + drop.size/2;
+                if (distSq < minDist * minDist) {
+                    ship.health = ship.maxHealth(); // Fully heal the ship
+                    ship.cargo += drop.loot;
+                    drop.expiry.cancel();
+                    stats.add(BattleStats.Metric.DROPS, ship.faction);
+                    collected = true;
+                    break;
+                }
+            }
+            if (collected) healthDrops.remove(d);
+        }
+
+        // Crates: sink the old ones, wash up new ones, and ships sailing over them haul them aboard
+        loot.update(timers.now(), rand, water);
+        for (int i = 0; i < ships.size(); i++) {
+            Ship ship = ships.get(i);
+            ship.cargo += loot.collect(ship.x, ship.y, ship.size() / 2);
+        }
+
+        pirates.update();
+        economy.update(timers.now(), ships, pirates);
+        stats.setTick(timers.now());
+
+        shipGrid.build(ships, s -> s.x, s -> s.y);
+
+        // Page far-away regions out to disk, and back in when a fleet approaches
+        if (timers.now() % REGION_CHECK == 0) regions.update(ships);
+    }
+
+    private void sweepExpired() {
+        int kept = 0;
+        for (int i = 0; i < cannonballs.size(); i++) {
+            Cannonball cb = cannonballs.get(i);
+            if (!cb.done) cannonballs.set(kept++, cb);
+        }
+        truncate(cannonballs, kept);
+        kept = 0;
+        for (int i = 0; i < healthDrops.size(); i++) {
+            HealthDrop drop = healthDrops.get(i);
+            if (!drop.expired) healthDrops.set(kept++, drop);
+        }
+        truncate(healthDrops, kept);
+        kept = 0;
+        for (int i = 0; i < wrecks.size(); i++) {
+            Ship.Shipwreck wreck = wrecks.get(i);
+            if (!wreck.expired) wrecks.set(kept++, wreck);
+        }
+        truncate(wrecks, kept);
+    }
+
+    // Drops everything from index size on, from the end so nothing shifts
+    private static <T> void truncate(List<T> list, int size) {
+        for (int i = list.size() - 1; i >= size; i--) list.remove(i);
+    }
+
+    private void refit() {
+        typesVersion = types.version();
+        for (int i = 0; i < ships.size(); i++) {
+            Ship ship = ships.get(i);
+            ship.type = types.get(ship.type.id);
+            ship.health = Math.min(ship.health, ship.maxHealth());
+            ship.cooldown = Math.min(ship.cooldown, ship.reload());
+        }
+    }
+
+    // Read-only views for renderers and tools; only update() may change these
+    List<Ship> ships() { return ships; }
+    List<Island> islands() { return islands; }
+    List<Cannonball> cannonballs() { return cannonballs; }
+    List<Ship.Shipwreck> wrecks() { return wrecks; }
+    List<HealthDrop> healthDrops() { return healthDrops; }
+    PirateCrowd pirates() { return pirates; }
+    LootField loot() { return loot; }
+    List<Ship.Rowboat> rowboats() { return rowboats; }
+    List<Ship> ghosts() { return ghosts; }
+    public BattleStats stats() { return stats; }
+    public Economy economy() { return economy; }
+    Visibility fog() { return fog; }
+
+    // The same, culled through the grids: what's centred in (or a cell around) the world
+    // rectangle; callers pad it by how far their art reaches
+    void islandsIn(int x0, int y0, int x1, int y1, java.util.function.Consumer<Island> action) {
+        islandGrid.forEachIn(x0, y0, x1, y1, action);
+    }
+    void shipsIn(int x0, int y0, int x1, int y1, java.util.function.Consumer<Ship> action) {
+        shipGrid.forEachIn(x0, y0, x1, y1, action);
+    }
+    void cannonballsIn(int x0, int y0, int x1, int y1, java.util.function.Consumer<Cannonball> action) {
+        buildRenderGrids();
+        ballGrid.forEachIn(x0, y0, x1, y1, action);
+    }
+    void wrecksIn(int x0, int y0, int x1, int y1, java.util.function.Consumer<Ship.Shipwreck> action) {
+        buildRenderGrids();
+        wreckGrid.forEachIn(x0, y0, x1, y1, action);
+    }
+    void healthDropsIn(int x0, int y0, int x1, int y1, java.util.function.Consumer<HealthDrop> action) {
+        buildRenderGrids();
+        dropGrid.forEachIn(x0, y0, x1, y1, action);
+    }
+    void debrisIn(int x0, int y0, int x1, int y1, java.util.function.IntConsumer action) { // indices into debris()
+        buildRenderGrids();
+        debrisGrid.forEachIndexIn(x0, y0, x1, y1, action);
+    }
+
+    public Faction observer() { return observer; }
+
+    public void setObserver(Faction faction) { observer = faction; }
+
+    // Everything -> each faction in turn -> everything
+    public void cycleObserver() {
+        Faction[] factions = Faction.values();
+        observer = observer == null ? factions[0] : observer.ordinal() + 1 < factions.length ? factions[observer.ordinal() + 1] : null;
+    }
+
+    // Whether the observer can see a world position (always, with no observer)
+    boolean seen(int x, int y) {
+        return observer == null || fog.visible(observer, x, y);
+    }
+    Random random() { return rand; }
+    ShipTypes shipTypes() { return types; }
+
+    // 0 drops the planner's clock-based time slice for a full plan every tick, which
+    // costs more but doesn't depend on how fast the machine is (see MonteCarlo)
+    public void setPlannerBudget(int micros) {
+        captains.setBudget(micros);
+    }
+
+    void setEffects(boolean on) {
+        if (!on && effects) debris.clear();
+        effects = on;
+    }
+
+    // Shard handoff: the ship leaves this world without dying (no drop, no respawn)
+    void release(Ship ship) {
+        ships.remove(ship);
+        influence.remove(ship);
+        fog.remove(ship);
+        separation.remove(ship);
+    }
+
+    void adopt(Ship ship) {
+        ships.add(ship);
+        separation.add(ship);
+    }
+    ParticleBatch debris() { return debris; }
+
+    OceanRenderer ocean() {
+        if (ocean == null) ocean = OceanRenderer.configured(1L);
+        return ocean;
+    }
+
+    public int pagedOutRegions() {
+        return regions.pagedOutRegions();
+    }
+
+    @Override
+    public void close() throws java.io.IOException {
+        regions.close();
+    }
+
+    // Where the spawner may float a crate: not on or right up against an island
+    private boolean openWater(int x, int y) {
+        probeX = x;
+        probeY = y;
+        probeDry = false;
+        int r = Island.MAX_RADIUS + 12;
+        islandGrid.forEachIn(x - r, y - r, x + r, y + r, dryProbe);
+        return !probeDry;
+    }
+
+    private void spawnHealthDrop(int x, int y, int loot) {
+        HealthDrop drop = new HealthDrop(x, y);
+        drop.loot = loot;
+        drop.expiry = timers.schedule(HealthDrop.LIFE, drop);
+        healthDrops.add(drop);
+    }
+
+    // Draws the whole world in world coordinates
+    public void render(Graphics g) {
+        render(g, new Rectangle(0, 0, width, height));
+    }
+
+    // Draws only what can touch the world-space rectangle view; the caller has
+    // already applied the camera transform to g
+    public void render(Graphics g, Rectangle view) {
+        renderStatic(g, view, timers.now());
+        renderDynamic(g, view);
+        if (observer != null) {
+            // Islands stay charted under the fog; anything afloat there isn't drawn at all
+            g.setColor(FOG);
+            fog.hiddenRuns(observer, view, g::fillRect);
+        }
+    }
+
+    // Ocean and islands: everything that doesn't move. oceanTick picks the ocean
+    // animation frame, so a fixed value gives a fully static layer to cache.
+    public void renderStatic(Graphics g, Rectangle view, long oceanTick) {
+        // Draw ocean background with swells
+        drawOcean(g, view, oceanTick);
+
+        // Draw islands
+        islandGrid.forEachIn(view.x - ISLAND_MARGIN, view.y - ISLAND_MARGIN,
+                view.x + view.width + ISLAND_MARGIN, view.y + view.height + ISLAND_MARGIN,
+                island -> island.draw(g));
+    }
+
+    // Ships, projectiles, effects, pickups and crews
+    public void renderDynamic(Graphics g, Rectangle view) {
+        int x0 = view.x, y0 = view.y, x1 = view.x + view.width, y1 = view.y + view.height;
+
+        // Draw ships, cannonballs, etc.
+        visibleCount = 0;
+        shipGrid.forEachIn(x0 - SHIP_MARGIN, y0 - SHIP_MARGIN, x1 + SHIP_MARGIN, y1 + SHIP_MARGIN, this::addVisible);
+        Ship.drawWakes(g, visibleShips, visibleCount); // under the hulls
+        for (int i = 0; i < visibleCount; i++) visibleShips[i].draw(g);
+        buildRenderGrids();
+        dynamicGraphics = g;
+        ballGrid.forEachIn(x0 - 16, y0 - 16, x1 + 16, y1 + 16, ballDraw);
+        debrisGrid.forEachIndexIn(x0 - 3, y0 - 3, x1, y1, debrisDraw);
+        wreckGrid.forEachIn(x0 - 24, y0 - 24, x1 + 24, y1 + 24, wreckDraw);
+        // A handful at most, and a boat's waypoints can be anywhere, so these aren't gridded
+        for (Ship.Rowboat boat : rowboats) if (seen(boat.x, boat.y)) boat.draw(g);
+        // Draw crates and health drops
+        lootGraphics = g;
+        loot.forEachIn(x0 - 8, y0 - 8, x1 + 8, y1 + 8, lootDraw);
+        lootGraphics = null;
+        dropGrid.forEachIn(x0 - 16, y0 - 16, x1 + 16, y1 + 16, dropDraw);
+        dynamicGraphics = null;
+        pirates.draw(g, view); // on islands, which are always charted
+    }
+
+    // Entities only change in update(), so the grids hold for every rect drawn this tick
+    private void buildRenderGrids() {
+        if (ballGrid == null) {
+            ballGrid = new SpatialGrid<>(width, height, 128);
+            wreckGrid = new SpatialGrid<>(width, height, 128);
+            dropGrid = new SpatialGrid<>(width, height, 128);
+            debrisGrid = new SpatialGrid<>(width, height, 128);
+        } else if (gridsTick == timers.now()) {
+            return;
+        }
+        gridsTick = timers.now();
+        ballGrid.build(cannonballs, cb -> cb.x, cb -> cb.y);
+        wreckGrid.build(wrecks, w -> w.x, w -> w.y);
+        dropGrid.build(healthDrops, d -> d.x, d -> d.y);
+        debrisGrid.buildIndices(debris.size, debrisX, debrisY);
+    }
+
+    private void addVisible(Ship ship) {
+        if (!seen(ship.x, ship.y)) return;
+        if (visibleCount == visibleShips.length) visibleShips = java.util.Arrays.copyOf(visibleShips, visibleCount * 2);
+        visibleShips[visibleCount++] = ship;
+    }
+
+    // Reports the bounds of everything renderDynamic draws, for dirty-rectangle repaints
+    public void dynamicBounds(DirtyRegions out) {
+        for (Ship ship : ships) {
+            // The hull art stays within size / 2 of the centre, the health bar within 8
+            int half = Math.max(10, ship.size() / 2 + 2);
+            out.addWorld(ship.x - half, ship.y - ship.size() / 2 - 12, 2 * half, ship.size() + 14);
+            // Every wake segment fades a step each tick, so the whole trail is repainted:
+            // one box around it, which stays small since it's only the last WAKE_MAX positions
+            int n = ship.wakeCount();
+            if (n > 0) {
+                int wx0 = ship.wakeX(0), wy0 = ship.wakeY(0), wx1 = wx0, wy1 = wy0;
+                for (int age = 1; age < n; age++) {
+                    int wx = ship.wakeX(age), wy = ship.wakeY(age);
+                    wx0 = Math.min(wx0, wx);
+                    wx1 = Math.max(wx1, wx);
+                    wy0 = Math.min(wy0, wy);
+                    wy1 = Math.max(wy1, wy);
+                }
+                out.addWorld(wx0 - 1, wy0 + 3, wx1 - wx0 + 2, wy1 - wy0 + 2); // segments are 2x2 at (x - 1, y + 3)
+            }
+        }
+        for (Cannonball cb : cannonballs) out.addWorld(cb.x - 20, cb.y - 20, 40, 40);
+        for (int i = 0; i < debris.size; i++) out.addWorld((int) debris.x[i], (int) debris.y[i], 3, 3);
+        for (Ship.Shipwreck wreck : wrecks) out.addWorld(wreck.x - 16, wreck.y - 22, 32, 36);
+        for (Ship.Rowboat boat : rowboats) {
+            out.addWorld(boat.x - 8, boat.y - 8, 16, 16);
+            for (Point wp : boat.waypoints) out.addWorld(wp.x - 3, wp.y - 3, 6, 6);
+        }
+        for (HealthDrop drop : healthDrops) out.addWorld(drop.x - 10, drop.y - 10, 20, 20);
+        // Crates don't move, but they appear and get picked up; only the ones on screen matter
+        out.visibleWorld(lootView);
+        lootBounds = out;
+        loot.forEachIn(lootView.x - 8, lootView.y - 8, lootView.x + lootView.width + 8, lootView.y + lootView.height + 8, lootBound);
+        lootBounds = null;
+        // A crew stays on its island, so its island's box covers every pirate in it
+        for (PirateCrowd.Crew crew : pirates.crews()) {
+            if (crew.count == 0) continue;
+            Island island = crew.island;
+            out.addWorld(island.x - island.radius, island.y - island.radius - 4, 2 * island.radius, 2 * island.radius + 8);
+        }
+    }
+
+    private void drawOcean(Graphics g, Rectangle view, long oceanTick) {
+        // Base ocean blue and swells come pre-baked in the animated tiles
+        ocean().draw(g, oceanTick, view.x, view.y, view.width, view.height);
+    }
+}
@@ -0,0 +1,28 @@
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorSpecies;
+
+// SIMD particle kernel. Kept out of the main source directory so a plain javac *.java
+// builds the game without the incubator module; this is an optional extra step:
+//   javac *.java
+//   javac --add-modules jdk.incubator.vector -cp . -d . simd/VectorKinematics.java
+//   java  --add-modules jdk.incubator.vector Main
+// If it wasn't compiled, or the flag is missing at run time, ParticleBatch quietly falls
+// back to its scalar loop.
+final class VectorKinematics implements ParticleBatch.Kernel {
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    @Override
+    public void step(float[] x, float[] y, float[] vx, float[] vy, float[] life, float gravity, int n) {
+        int i = 0;
+        int bound = SPECIES.loopBound(n);
+        for (; i < bound; i += SPECIES.length()) {
+            FloatVector dx = FloatVector.fromArray(SPECIES, vx, i);
+            FloatVector dy = FloatVector.fromArray(SPECIES, vy, i);
+            FloatVector.fromArray(SPECIES, x, i).add(dx).intoArray(x, i);
+            FloatVector.fromArray(SPECIES, y, i).add(dy).intoArray(y, i);
+            dy.add(gravity).intoArray(vy, i);
+            FloatVector.fromArray(SPECIES, life, i).sub(1f).intoArray(life, i);
+        }
+        ParticleBatch.scalarStep(x, y, vx, vy, life, gravity, i, n);
+    }
+}